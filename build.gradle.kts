@@ -21,6 +21,7 @@ repositories {
 
 dependencies {
     implementation("org.jetbrains.kotlin:kotlin-stdlib:1.9.23")
+    testImplementation("junit:junit:4.13.2")
 }
 
 // Configure Gradle IntelliJ Plugin
@@ -55,7 +56,7 @@ tasks {
     }
 
     patchPluginXml {
-        sinceBuild.set("203")
+        sinceBuild.set("231")
         untilBuild.set("251.*")
     }
 
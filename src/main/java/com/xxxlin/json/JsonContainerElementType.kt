@@ -0,0 +1,95 @@
+package com.xxxlin.json
+
+import com.intellij.lang.ASTNode
+import com.intellij.lang.Language
+import com.intellij.lang.LanguageParserDefinitions
+import com.intellij.lang.PsiBuilderFactory
+import com.intellij.openapi.project.Project
+import com.intellij.psi.impl.source.tree.ICompositeElementType
+import com.intellij.psi.impl.source.tree.LazyParseableElement
+import com.intellij.psi.tree.IElementType
+import com.intellij.psi.tree.IErrorCounterReparseableElementType
+
+/**
+ * 对象和数组的元素类型，修改内容时只重新解析包含修改位置的最内层 `{...}` 或 `[...]`
+ *
+ * 文件解析时照常一次性解析；增量重解析前用词法分析器检查括号是否配对，
+ * 不配对时交给外层容器或整个文件重新解析
+ */
+class JsonContainerElementType(
+    debugName: String,
+    private val isObject: Boolean
+) : IErrorCounterReparseableElementType(debugName, JsonLanguage.INSTANCE), ICompositeElementType {
+
+    // 创建时 JsonElementTypes 中的 token 类型可能还未初始化，使用时再取
+    private val open: IElementType
+        get() = if (isObject) JsonElementTypes.L_CURLY else JsonElementTypes.L_BRACKET
+
+    private val close: IElementType
+        get() = if (isObject) JsonElementTypes.R_CURLY else JsonElementTypes.R_BRACKET
+
+    override fun createCompositeNode(): ASTNode {
+        return LazyParseableElement(this, null)
+    }
+
+    /**
+     * 增量重解析时由平台调用，返回 null 会退回到整个文件重新解析
+     */
+    override fun createNode(text: CharSequence?): ASTNode {
+        return LazyParseableElement(this, text)
+    }
+
+    override fun parseContents(chameleon: ASTNode): ASTNode? {
+        val psi = chameleon.treeParent.psi
+        val language = psi.containingFile.language
+        val parserDefinition = LanguageParserDefinitions.INSTANCE.forLanguage(language) ?: return null
+        val builder = PsiBuilderFactory.getInstance()
+            .createBuilder(psi.project, chameleon, null, language, chameleon.chars)
+        val root = parserDefinition.createParser(psi.project).parse(this, builder)
+        val first = root.firstChildNode
+        // 根节点与内层容器范围相同时会被合并，否则跳过内层节点
+        return if (first != null && first.elementType == this && first.treeNext == null) first.firstChildNode else first
+    }
+
+    override fun getErrorsCount(seq: CharSequence, fileLanguage: Language, project: Project): Int {
+        val lexer = LanguageParserDefinitions.INSTANCE.forLanguage(fileLanguage)?.createLexer(project) ?: JsonLexer()
+        lexer.start(seq)
+        if (lexer.tokenType != open) {
+            return FATAL_ERROR
+        }
+        val stack = ArrayList<IElementType>()
+        while (true) {
+            val type = lexer.tokenType ?: return FATAL_ERROR
+            when (type) {
+                JsonElementTypes.L_CURLY -> stack.add(JsonElementTypes.R_CURLY)
+                JsonElementTypes.L_BRACKET -> stack.add(JsonElementTypes.R_BRACKET)
+                JsonElementTypes.R_CURLY, JsonElementTypes.R_BRACKET -> {
+                    if (stack.removeLastOrNull() != type) {
+                        return FATAL_ERROR
+                    }
+                    if (stack.isEmpty()) {
+                        lexer.advance()
+                        // 最外层括号必须正好在末尾结束
+                        return if (type == close && lexer.tokenType == null) NO_ERRORS else FATAL_ERROR
+                    }
+                }
+            }
+            lexer.advance()
+        }
+    }
+
+    companion object {
+
+        /**
+         * json.bnf 中 elementTypeFactory 指向此处
+         */
+        @JvmStatic
+        fun create(debugName: String): IElementType {
+            return when (debugName) {
+                "OBJECT" -> JsonContainerElementType(debugName, true)
+                "ARRAY" -> JsonContainerElementType(debugName, false)
+                else -> JsonElementType(debugName)
+            }
+        }
+    }
+}
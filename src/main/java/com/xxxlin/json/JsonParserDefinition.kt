@@ -12,6 +12,7 @@ import com.intellij.psi.PsiFile
 import com.intellij.psi.tree.IFileElementType
 import com.intellij.psi.tree.TokenSet
 import com.xxxlin.json.psi.impl.JsonFileImpl
+import com.xxxlin.json.psi.stubs.JsonStubElementTypes
 
 open class JsonParserDefinition : ParserDefinition {
     override fun createLexer(project: Project): Lexer {
@@ -50,6 +51,6 @@ open class JsonParserDefinition : ParserDefinition {
     }
 
     companion object {
-        val FILE: IFileElementType = IFileElementType(JsonLanguage.INSTANCE)
+        val FILE: IFileElementType = JsonStubElementTypes.FILE
     }
 }
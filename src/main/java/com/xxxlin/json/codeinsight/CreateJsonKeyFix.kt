@@ -0,0 +1,145 @@
+package com.xxxlin.json.codeinsight
+
+import com.intellij.codeInspection.LocalQuickFixAndIntentionActionOnPsiElement
+import com.intellij.openapi.application.ModalityState
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.editor.Editor
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.guessProjectDir
+import com.intellij.openapi.ui.popup.JBPopupFactory
+import com.intellij.openapi.ui.popup.PopupStep
+import com.intellij.openapi.ui.popup.util.BaseListPopupStep
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.pom.Navigatable
+import com.intellij.psi.PsiManager
+import com.intellij.util.concurrency.AppExecutorUtil
+import com.intellij.util.indexing.FileBasedIndex
+import com.xxxlin.json.JsonBundle
+import com.xxxlin.json.JsonIcons
+import com.xxxlin.json.JsonLanguageUtil
+import com.xxxlin.json.index.JsonKeyPathIndex
+import com.xxxlin.json.psi.JsonElementGenerator
+import com.xxxlin.json.psi.JsonFile
+import com.xxxlin.json.psi.JsonObject
+import com.xxxlin.json.psi.JsonProperty
+import com.xxxlin.json.psi.JsonPsiUtil
+import com.xxxlin.json.scope.JsonKeySourceScope
+import org.jetbrains.annotations.Nls
+import javax.swing.Icon
+
+/**
+ * 在选择的 JSON 文件中创建缺少的 key，多级 key 缺少的中间层级创建为对象
+ *
+ * 多级 key 只列出已包含最深一级已有路径的文件，有多个候选时弹出列表选择。
+ * 候选只通过索引在后台查找，不解析 JSON 文件，只有选中的文件才加载 PSI
+ */
+class CreateJsonKeyFix(
+    element: PsiElement,
+    private val keys: List<String>
+) : LocalQuickFixAndIntentionActionOnPsiElement(element) {
+
+    override fun getText(): String {
+        return JsonBundle.message("inspection.unresolved.key.fix", JsonKeyPathIndex.toPath(keys))
+    }
+
+    override fun getFamilyName(): @Nls(capitalization = Nls.Capitalization.Sentence) String {
+        return JsonBundle.message("inspection.unresolved.key.fix.family")
+    }
+
+    override fun startInWriteAction(): Boolean {
+        return false
+    }
+
+    override fun invoke(
+        project: Project,
+        file: PsiFile,
+        editor: Editor?,
+        startElement: PsiElement,
+        endElement: PsiElement
+    ) {
+        ReadAction.nonBlocking<List<VirtualFile>> { findCandidates(project) }
+            .inSmartMode(project)
+            .expireWith(project)
+            .finishOnUiThread(ModalityState.defaultModalityState()) { candidates ->
+                choose(project, editor, candidates)
+            }
+            .submit(AppExecutorUtil.getAppExecutorService())
+    }
+
+    private fun choose(project: Project, editor: Editor?, candidates: List<VirtualFile>) {
+        if (candidates.isEmpty()) {
+            return
+        }
+        if (candidates.size == 1 || editor == null || editor.isDisposed) {
+            createKey(project, candidates[0])
+            return
+        }
+
+        val root = project.guessProjectDir()
+        JBPopupFactory.getInstance().createListPopup(
+            object : BaseListPopupStep<VirtualFile>(
+                JsonBundle.message("inspection.unresolved.key.fix.choose"),
+                candidates
+            ) {
+                override fun getIconFor(value: VirtualFile): Icon {
+                    return JsonIcons.FILE
+                }
+
+                override fun getTextFor(value: VirtualFile): String {
+                    return root?.let { VfsUtilCore.getRelativePath(value, it) } ?: value.path
+                }
+
+                override fun onChosen(selectedValue: VirtualFile, finalChoice: Boolean): PopupStep<*>? {
+                    return doFinalStep { createKey(project, selectedValue) }
+                }
+
+                override fun isSpeedSearchEnabled(): Boolean {
+                    return true
+                }
+            }).showInBestPositionFor(editor)
+    }
+
+    /**
+     * 多级 key 从倒数第二级向上找已存在的路径，只列出含有该路径的文件
+     */
+    private fun findCandidates(project: Project): List<VirtualFile> {
+        val scope = JsonKeySourceScope.getScope(project)
+        val files = if (keys.size > 1) {
+            val index = FileBasedIndex.getInstance()
+            (keys.size - 1 downTo 1).asSequence()
+                .map { index.getContainingFiles(JsonKeyPathIndex.NAME, JsonKeyPathIndex.toPath(keys.subList(0, it)), scope) }
+                .firstOrNull { it.isNotEmpty() }
+                .orEmpty()
+        } else {
+            JsonLanguageUtil.findAllJsonVirtualFile(project)
+        }
+        return files.filter { it.isValid }.sortedBy { it.path }
+    }
+
+    private fun createKey(project: Project, virtualFile: VirtualFile) {
+        val file = PsiManager.getInstance(project).findFile(virtualFile) as? JsonFile ?: return
+        var created: PsiElement? = null
+        WriteCommandAction.runWriteCommandAction(project, text, null, {
+            var current = file.topLevelValue as? JsonObject ?: return@runWriteCommandAction
+            val generator = JsonElementGenerator(project)
+            for ((index, key) in keys.withIndex()) {
+                val last = index == keys.lastIndex
+                val existing = current.findProperty(key)
+                if (existing != null) {
+                    current = existing.value as? JsonObject ?: return@runWriteCommandAction
+                    continue
+                }
+                val property = generator.createProperty(StringUtil.escapeStringCharacters(key), if (last) "\"\"" else "{}")
+                val added = JsonPsiUtil.addProperty(current, property, false) as JsonProperty
+                created = added
+                current = added.value as? JsonObject ?: break
+            }
+        }, file)
+        (created as? Navigatable)?.navigate(true)
+    }
+}
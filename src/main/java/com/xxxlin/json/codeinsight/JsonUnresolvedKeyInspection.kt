@@ -0,0 +1,98 @@
+package com.xxxlin.json.codeinsight
+
+import com.intellij.codeInspection.LocalInspectionTool
+import com.intellij.codeInspection.ProblemHighlightType
+import com.intellij.codeInspection.ProblemsHolder
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiElementVisitor
+import com.xxxlin.json.JsonBundle
+import com.xxxlin.json.JsonLanguageUtil
+import com.xxxlin.json.editor.JsonFeatureOptions
+import com.xxxlin.json.resolve.JsonKeyLiteral
+import com.xxxlin.utils.SlotScanner
+import com.xxxlin.utils.contains
+
+/**
+ * Java/Kotlin 字符串中无法解析的多级 key 和 {} 槽位
+ *
+ * 多级 key 只在第一级是已知顶层属性时检查；槽位只在同一字符串中已有其它槽位能解析时检查，避免普通格式化字符串误报。
+ * 判断都经过 [JsonLanguageUtil] 的 key 过滤器和索引，不另外维护 key 集合
+ */
+class JsonUnresolvedKeyInspection : LocalInspectionTool() {
+
+    override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor {
+        val options = JsonFeatureOptions.instance
+        if (!options.MATCH_STRING) {
+            return PsiElementVisitor.EMPTY_VISITOR
+        }
+        return object : PsiElementVisitor() {
+            override fun visitElement(element: PsiElement) {
+                val literal = JsonKeyLiteral.of(element) ?: return
+                checkPath(literal, element.project, holder)
+                if (options.MATCH_STRING_SLOT_BRACE) {
+                    checkSlots(literal, element.project, holder)
+                }
+            }
+        }
+    }
+
+    private fun checkPath(literal: JsonKeyLiteral, project: Project, holder: ProblemsHolder) {
+        val text = literal.value
+        if (!text.contains('/', '#')) {
+            return
+        }
+        val keys = text.split("/", "#")
+        if (keys.size < 2 || keys.any { it.isEmpty() }) {
+            return
+        }
+        // 只有一级的路径即顶层属性
+        if (!JsonLanguageUtil.containsJsonKeys(project, keys.subList(0, 1)) ||
+            JsonLanguageUtil.containsJsonKeys(project, keys)
+        ) {
+            return
+        }
+        val range = literal.toHostRanges(TextRange(0, text.length)).firstOrNull() ?: return
+        holder.registerProblem(
+            literal.host,
+            JsonBundle.message("inspection.unresolved.key.msg", text),
+            ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
+            range,
+            CreateJsonKeyFix(literal.host, keys)
+        )
+    }
+
+    private fun checkSlots(literal: JsonKeyLiteral, project: Project, holder: ProblemsHolder) {
+        val text = literal.value
+        // 查询索引前先取出所有槽位，见 SlotScanner
+        val scanner = SlotScanner.brace()
+        val slots = (0 until scanner.scan(text)).map { TextRange(scanner.start(it), scanner.end(it)) }
+        if (slots.isEmpty()) {
+            return
+        }
+        var resolved = false
+        val unresolved = mutableListOf<TextRange>()
+        for (range in slots) {
+            if (JsonLanguageUtil.containsJsonKey(project, range.substring(text))) {
+                resolved = true
+            } else {
+                unresolved.add(range)
+            }
+        }
+        if (!resolved) {
+            return
+        }
+        for (range in unresolved) {
+            val slot = range.substring(text)
+            val hostRange = literal.toHostRanges(range).firstOrNull() ?: continue
+            holder.registerProblem(
+                literal.host,
+                JsonBundle.message("inspection.unresolved.key.msg", slot),
+                ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
+                hostRange,
+                CreateJsonKeyFix(literal.host, listOf(slot))
+            )
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.xxxlin.json.codeinsight
+
+import com.intellij.codeInspection.GlobalInspectionContext
+import com.intellij.codeInspection.GlobalSimpleInspectionTool
+import com.intellij.codeInspection.InspectionManager
+import com.intellij.codeInspection.ProblemDescriptionsProcessor
+import com.intellij.codeInspection.ProblemHighlightType
+import com.intellij.codeInspection.ProblemsHolder
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.Key
+import com.intellij.psi.PsiFile
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.util.indexing.FileBasedIndex
+import com.xxxlin.json.JsonBundle
+import com.xxxlin.json.index.JsonCodeLiteralIndex
+import com.xxxlin.json.psi.JsonFile
+import com.xxxlin.json.psi.JsonProperty
+import com.xxxlin.json.scope.JsonKeySourceScope
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 找出没有被任何 Java/Kotlin 字符串使用的属性
+ *
+ * 比较 JSON 属性名与 [JsonCodeLiteralIndex] 中的文本，不做引用搜索
+ */
+class JsonUnusedKeyInspection : GlobalSimpleInspectionTool() {
+
+    override fun checkFile(
+        file: PsiFile,
+        manager: InspectionManager,
+        problemsHolder: ProblemsHolder,
+        globalContext: GlobalInspectionContext,
+        problemDescriptionsProcessor: ProblemDescriptionsProcessor
+    ) {
+        if (file !is JsonFile) {
+            return
+        }
+        val virtualFile = file.virtualFile ?: return
+        if (!JsonKeySourceScope.getScope(file.project).contains(virtualFile)) {
+            return
+        }
+
+        val usedKeys = getUsedKeys(globalContext, file.project)
+        for (property in PsiTreeUtil.findChildrenOfType(file, JsonProperty::class.java)) {
+            ProgressManager.checkCanceled()
+            if (!usedKeys.contains(property.name)) {
+                problemsHolder.registerProblem(
+                    property.nameElement,
+                    JsonBundle.message("inspection.unused.key.msg", property.name),
+                    ProblemHighlightType.LIKE_UNUSED_SYMBOL
+                )
+            }
+        }
+    }
+
+    private fun getUsedKeys(globalContext: GlobalInspectionContext, project: Project): UsedKeys {
+        synchronized(globalContext) {
+            return globalContext.getUserData(USED_KEYS) ?: UsedKeys(project).also {
+                globalContext.putUserData(USED_KEYS, it)
+            }
+        }
+    }
+
+    /**
+     * 一次检查中共用的代码字符串集合
+     *
+     * 先取出索引的全部 key 做集合差；全部 key 可能包含已失效的项，命中时再确认一次
+     */
+    private class UsedKeys(project: Project) {
+
+        private val scope = GlobalSearchScope.projectScope(project)
+
+        private val allKeys: Set<String> = HashSet<String>().also { keys ->
+            FileBasedIndex.getInstance().processAllKeys(JsonCodeLiteralIndex.NAME, { keys.add(it) }, scope, null)
+        }
+
+        private val confirmed = ConcurrentHashMap<String, Boolean>()
+
+        fun contains(key: String): Boolean {
+            if (key !in allKeys) {
+                return false
+            }
+            return confirmed.computeIfAbsent(key) {
+                !FileBasedIndex.getInstance().processValues(
+                    JsonCodeLiteralIndex.NAME, it, null,
+                    { _, _ -> false },
+                    scope
+                )
+            }
+        }
+    }
+
+    companion object {
+        private val USED_KEYS = Key.create<UsedKeys>("JsonUnusedKeyInspection.usedKeys")
+    }
+}
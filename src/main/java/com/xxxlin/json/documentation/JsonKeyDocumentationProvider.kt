@@ -0,0 +1,114 @@
+package com.xxxlin.json.documentation
+
+import com.intellij.lang.documentation.AbstractDocumentationProvider
+import com.intellij.lang.documentation.DocumentationMarkup
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.guessProjectDir
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiElement
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.indexing.ID
+import com.xxxlin.json.JsonBundle
+import com.xxxlin.json.index.JsonKeyIndex
+import com.xxxlin.json.index.JsonKeyPathIndex
+import com.xxxlin.json.index.JsonPropertyScanner
+import com.xxxlin.json.psi.JsonFile
+import com.xxxlin.json.psi.JsonObject
+import com.xxxlin.json.psi.JsonProperty
+import com.xxxlin.json.scope.JsonKeySourceScope
+
+/**
+ * key 的快速文档：列出每个定义该 key 的 JSON 文件中的值
+ *
+ * 目标属性可按多级 key 到达时查询 [JsonKeyPathIndex]，否则查询 [JsonKeyIndex]；
+ * 值由词法分析器从索引中的偏移读取，其它文件不解析 PSI
+ */
+class JsonKeyDocumentationProvider : AbstractDocumentationProvider() {
+
+    override fun generateDoc(element: PsiElement?, originalElement: PsiElement?): String? {
+        val property = element as? JsonProperty ?: return null
+        val project = property.project
+        if (DumbService.isDumb(project)) {
+            return null
+        }
+        val keys = pathOf(property)
+        val values = if (keys != null) {
+            collectValues(project, JsonKeyPathIndex.NAME, JsonKeyPathIndex.toPath(keys)) { listOfNotNull(it.lastOrNull()) }
+        } else {
+            collectValues(project, JsonKeyIndex.NAME, property.name) { it.toList() }
+        }
+        if (values.isEmpty()) {
+            return null
+        }
+
+        val root = project.guessProjectDir()
+        val builder = StringBuilder()
+        builder.append(DocumentationMarkup.DEFINITION_START)
+            .append(StringUtil.escapeXmlEntities(keys?.joinToString(".") ?: property.name))
+            .append(DocumentationMarkup.DEFINITION_END)
+        builder.append(DocumentationMarkup.SECTIONS_START)
+        for ((file, value) in values) {
+            val path = root?.let { VfsUtilCore.getRelativePath(file, it) } ?: file.presentableUrl
+            builder.append(DocumentationMarkup.SECTION_HEADER_START)
+                .append(StringUtil.escapeXmlEntities(path))
+                .append(DocumentationMarkup.SECTION_SEPARATOR)
+                .append(StringUtil.escapeXmlEntities(value ?: JsonBundle.message("documentation.key.no.value")))
+                .append(DocumentationMarkup.SECTION_END)
+        }
+        builder.append(DocumentationMarkup.SECTIONS_END)
+        return builder.toString()
+    }
+
+    /**
+     * 一次索引查询取得所有文件中的偏移，再逐个读取值文本
+     */
+    private fun collectValues(
+        project: Project,
+        indexId: ID<String, IntArray>,
+        key: String,
+        offsetsOf: (IntArray) -> List<Int>
+    ): List<Pair<VirtualFile, String?>> {
+        val result = ArrayList<Pair<VirtualFile, String?>>()
+        FileBasedIndex.getInstance().processValues(indexId, key, null, { file, offsets ->
+            ProgressManager.checkCanceled()
+            val text = FileDocumentManager.getInstance().getCachedDocument(file)?.immutableCharSequence
+                ?: LoadTextUtil.loadText(file)
+            for (offset in offsetsOf(offsets)) {
+                val value = if (offset < text.length) JsonPropertyScanner.valueTextAt(text, offset) else null
+                result.add(file to value?.let { StringUtil.trimMiddle(it, MAX_VALUE_LENGTH) })
+            }
+            true
+        }, JsonKeySourceScope.getScope(project))
+        return result.sortedBy { it.first.path }
+    }
+
+    /**
+     * 从第一个顶层对象逐级经由对象值到达该属性时返回每一级 key，与 [JsonKeyPathIndex] 的收录规则一致
+     */
+    private fun pathOf(property: JsonProperty): List<String>? {
+        val keys = ArrayList<String>()
+        var current = property
+        while (true) {
+            if (JsonKeyPathIndex.SEPARATOR in current.name) {
+                return null
+            }
+            keys.add(0, current.name)
+            val obj = current.parent as? JsonObject ?: return null
+            when (val parent = obj.parent) {
+                is JsonProperty -> current = parent
+                is JsonFile -> return keys.takeIf { parent.topLevelValue == obj }
+                else -> return null
+            }
+        }
+    }
+
+    companion object {
+        private const val MAX_VALUE_LENGTH = 200
+    }
+}
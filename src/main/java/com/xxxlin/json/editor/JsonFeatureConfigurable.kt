@@ -1,38 +1,123 @@
 // Copyright 2000-2023 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
 package com.xxxlin.json.editor
 
-import com.intellij.openapi.options.BeanConfigurable
-import com.intellij.openapi.options.SearchableConfigurable
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer
+import com.intellij.openapi.options.BoundSearchableConfigurable
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.ProjectManager
+import com.intellij.psi.PsiManager
+import com.intellij.ui.dsl.builder.AlignX
+import com.intellij.ui.dsl.builder.bindIntText
+import com.intellij.ui.dsl.builder.bindSelected
+import com.intellij.ui.dsl.builder.bindText
+import com.intellij.ui.dsl.builder.panel
 import com.xxxlin.json.JsonBundle
+import com.xxxlin.json.JsonModificationTracker
+import com.xxxlin.json.hints.JsonKeyValueCache
 
-class JsonFeatureConfigurable : BeanConfigurable<Unit>(Unit), SearchableConfigurable {
+class JsonFeatureConfigurable(private val project: Project) : BoundSearchableConfigurable(
+    "JSON Ext Feature",
+    "reference.settings.json_ext",
+    "editor.preferences.jsonExtFeatureOptions"
+) {
 
-    init {
-        JsonFeatureOptions.instance.let { settings ->
-            checkBox(
-                JsonBundle.message("settings.feature.match_string"),
-                settings::MATCH_STRING,
-            )
-
-            checkBox(
-                JsonBundle.message("settings.feature.match_string_slot_curly_brace"),
-                settings::MATCH_STRING_SLOT_BRACE
-            )
+    override fun createPanel() = panel {
+        val settings = JsonFeatureOptions.instance
+        row {
+            checkBox(JsonBundle.message("settings.feature.match_string"))
+                .bindSelected(settings::MATCH_STRING)
+        }
+        row {
+            checkBox(JsonBundle.message("settings.feature.match_string_slot_curly_brace"))
+                .bindSelected(settings::MATCH_STRING_SLOT_BRACE)
+        }
+        row {
+            checkBox(JsonBundle.message("settings.feature.Highlight_key_of__pairs_of_percent_signs"))
+                .bindSelected(settings::JSON_KEY_PERCENT_SLOT_HIGHLIGHT)
+        }
+        row {
+            checkBox(JsonBundle.message("settings.feature.batch_annotate"))
+                .bindSelected(settings::BATCH_ANNOTATE)
+        }
+        row(JsonBundle.message("settings.feature.call_site_patterns")) {
+            textField()
+                .align(AlignX.FILL)
+                .bindText(settings::CALL_SITE_PATTERNS)
+                .comment(JsonBundle.message("settings.feature.call_site_patterns.comment"))
+        }
+        row(JsonBundle.message("settings.feature.resolve_time_budget")) {
+            intTextField(0..60_000)
+                .bindIntText(settings::RESOLVE_TIME_BUDGET_MS)
+                .comment(JsonBundle.message("settings.feature.resolve_time_budget.comment"))
+        }
 
-            checkBox(
-                JsonBundle.message("settings.feature.Highlight_key_of__pairs_of_percent_signs"),
-                settings::JSON_KEY_PERCENT_SLOT_HIGHLIGHT
-            )
+        group(JsonBundle.message("settings.inlay.value")) {
+            row(JsonBundle.message("settings.inlay.value.max_length")) {
+                intTextField(1..1000)
+                    .bindIntText(settings::INLAY_VALUE_MAX_LENGTH)
+            }
+            row(JsonBundle.message("settings.inlay.value.cache_size")) {
+                intTextField(1..1_000_000)
+                    .bindIntText(settings::INLAY_VALUE_CACHE_SIZE)
+            }
+            val statistics = JsonKeyValueCache.getInstance(project).getStatistics()
+            row {
+                comment(
+                    JsonBundle.message(
+                        "settings.inlay.value.cache_statistics",
+                        statistics.size,
+                        statistics.limit,
+                        String.format("%.1f", statistics.hitRate * 100)
+                    )
+                )
+            }
         }
-    }
 
-    override fun getDisplayName(): String {
-        return "JSON Ext Feature"
+        val keySource = JsonKeySourceOptions.getInstance(project)
+        group(JsonBundle.message("settings.key.source")) {
+            row(JsonBundle.message("settings.key.source.include")) {
+                textField()
+                    .align(AlignX.FILL)
+                    .bindText(keySource::INCLUDE_PATTERNS)
+                    .comment(JsonBundle.message("settings.key.source.pattern.comment"))
+            }
+            row(JsonBundle.message("settings.key.source.exclude")) {
+                textField()
+                    .align(AlignX.FILL)
+                    .bindText(keySource::EXCLUDE_PATTERNS)
+            }
+            row(JsonBundle.message("settings.key.source.modules")) {
+                textField()
+                    .align(AlignX.FILL)
+                    .bindText(keySource::MODULES)
+            }
+        }
     }
 
-    override fun getId(): String {
-        return "editor.preferences.jsonExtFeatureOptions"
+    override fun apply() {
+        val keySource = JsonKeySourceOptions.getInstance(project)
+        val old = listOf(keySource.INCLUDE_PATTERNS, keySource.EXCLUDE_PATTERNS, keySource.MODULES)
+        val oldCallSites = JsonFeatureOptions.instance.CALL_SITE_PATTERNS
+        val oldBatchAnnotate = JsonFeatureOptions.instance.BATCH_ANNOTATE
+        super.apply()
+        val scopeChanged = old != listOf(keySource.INCLUDE_PATTERNS, keySource.EXCLUDE_PATTERNS, keySource.MODULES)
+        if (scopeChanged) {
+            // 范围变化后所有 key 缓存和解析结果都需要失效
+            keySource.modificationTracker.incModificationCount()
+            JsonModificationTracker.getInstance(project).incModificationCount()
+        }
+        // 调用位置和批量注解是应用级设置，影响所有打开的项目
+        val options = JsonFeatureOptions.instance
+        val projects = if (oldCallSites != options.CALL_SITE_PATTERNS || oldBatchAnnotate != options.BATCH_ANNOTATE) {
+            ProjectManager.getInstance().openProjects.filterNot { it.isDisposed }
+        } else if (scopeChanged) {
+            listOf(project)
+        } else {
+            emptyList()
+        }
+        for (each in projects) {
+            PsiManager.getInstance(each).dropPsiCaches()
+            DaemonCodeAnalyzer.getInstance(each).restart()
+        }
     }
-
-    override fun getHelpTopic() = "reference.settings.json_ext"
 }
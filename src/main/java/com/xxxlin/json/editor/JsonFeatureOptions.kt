@@ -33,6 +33,36 @@ class JsonFeatureOptions : PersistentStateComponent<JsonFeatureOptions?> {
     @JvmField
     var JSON_KEY_PERCENT_SLOT_HIGHLIGHT: Boolean = true
 
+    /**
+     * 批量注解：整个文件的字符串在后台一次性分析
+     */
+    @JvmField
+    var BATCH_ANNOTATE: Boolean = false
+
+    /**
+     * 只匹配这些调用位置上的字符串，为空表示匹配所有字符串，写法见 JsonCallSiteFilter
+     */
+    @JvmField
+    var CALL_SITE_PATTERNS: String = ""
+
+    /**
+     * 单个字符串解析 key 的时间预算（毫秒），0 表示不限制
+     */
+    @JvmField
+    var RESOLVE_TIME_BUDGET_MS: Int = 300
+
+    /**
+     * 值提示显示的最大字符数
+     */
+    @JvmField
+    var INLAY_VALUE_MAX_LENGTH: Int = 40
+
+    /**
+     * 值提示缓存的最大条目数
+     */
+    @JvmField
+    var INLAY_VALUE_CACHE_SIZE: Int = 2000
+
     override fun getState(): JsonFeatureOptions {
         return this
     }
@@ -0,0 +1,64 @@
+package com.xxxlin.json.editor
+
+import com.intellij.openapi.components.PersistentStateComponent
+import com.intellij.openapi.components.State
+import com.intellij.openapi.components.Storage
+import com.intellij.openapi.components.service
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.SimpleModificationTracker
+import com.intellij.util.xmlb.XmlSerializerUtil
+import com.intellij.util.xmlb.annotations.Transient
+
+/**
+ * 项目级 key 来源设置，限定哪些 JSON 文件参与 key 查找
+ *
+ * 多个值用分号、逗号或换行分隔，为空表示不限制
+ */
+@State(
+    name = "JsonExtKeySourceOptions",
+    storages = [Storage("json_ext_key_source.xml")]
+)
+class JsonKeySourceOptions : PersistentStateComponent<JsonKeySourceOptions?> {
+
+    /**
+     * 包含的文件 glob，相对项目根目录，例如 src/main/resources/i18n/\**\/*.json
+     */
+    @JvmField
+    var INCLUDE_PATTERNS: String = ""
+
+    /**
+     * 排除的文件 glob，例如 \**\/package.json
+     */
+    @JvmField
+    var EXCLUDE_PATTERNS: String = ""
+
+    /**
+     * 只在这些模块中查找
+     */
+    @JvmField
+    var MODULES: String = ""
+
+    /**
+     * 设置变化时递增
+     */
+    @get:Transient
+    val modificationTracker = SimpleModificationTracker()
+
+    override fun getState(): JsonKeySourceOptions {
+        return this
+    }
+
+    override fun loadState(state: JsonKeySourceOptions) {
+        XmlSerializerUtil.copyBean(state, this)
+        modificationTracker.incModificationCount()
+    }
+
+    companion object {
+        @JvmStatic
+        fun getInstance(project: Project): JsonKeySourceOptions = project.service()
+
+        fun split(value: String): List<String> {
+            return value.split(';', ',', '\n').map { it.trim() }.filter { it.isNotEmpty() }
+        }
+    }
+}
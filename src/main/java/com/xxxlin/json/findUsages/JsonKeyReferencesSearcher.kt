@@ -0,0 +1,81 @@
+package com.xxxlin.json.findUsages
+
+import com.intellij.ide.highlighter.JavaFileType
+import com.intellij.openapi.application.QueryExecutorBase
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiLanguageInjectionHost
+import com.intellij.psi.PsiReference
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.search.PsiSearchHelper
+import com.intellij.psi.search.SearchScope
+import com.intellij.psi.search.UsageSearchContext
+import com.intellij.psi.search.searches.ReferencesSearch
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.util.Processor
+import com.xxxlin.json.editor.JsonFeatureOptions
+import com.xxxlin.json.psi.JsonProperty
+import com.xxxlin.json.reference.JsonKeyReference
+import org.jetbrains.kotlin.idea.KotlinFileType
+
+/**
+ * 在 Java/Kotlin 字符串中查找 JSON 属性的引用
+ *
+ * 先用单词索引找出字符串里含有属性名的位置，只检查这些字符串上覆盖该位置的 key 引用。
+ * Java/Kotlin 文件已由 [JsonKeyUseScopeOptimizer] 从通用搜索中排除，这里按用户选择的范围自行搜索
+ */
+class JsonKeyReferencesSearcher : QueryExecutorBase<PsiReference, ReferencesSearch.SearchParameters>(true) {
+
+    override fun processQuery(
+        queryParameters: ReferencesSearch.SearchParameters,
+        consumer: Processor<in PsiReference>
+    ) {
+        if (!JsonFeatureOptions.instance.MATCH_STRING) {
+            return
+        }
+        val target = queryParameters.elementToSearch as? JsonProperty ?: return
+        val name = target.name
+        if (name.isEmpty()) {
+            return
+        }
+
+        // effectiveSearchScope 已排除代码文件，改用用户选择的范围
+        val scope = restrictToCode(queryParameters.scopeDeterminedByUser.intersectWith(target.useScope))
+        PsiSearchHelper.getInstance(target.project).processElementsWithWord(
+            { element, offsetInElement ->
+                findReferences(element, element.textRange.startOffset + offsetInElement, target).all(consumer::process)
+            },
+            scope,
+            name,
+            UsageSearchContext.IN_STRINGS,
+            true
+        )
+    }
+
+    private fun restrictToCode(scope: SearchScope): SearchScope {
+        if (scope !is GlobalSearchScope) {
+            return scope
+        }
+        return GlobalSearchScope.getScopeRestrictedByFileTypes(scope, JavaFileType.INSTANCE, KotlinFileType.INSTANCE)
+    }
+
+    companion object {
+
+        /**
+         * 覆盖 offset 处、指向 target 的所有字符串 key 引用
+         *
+         * @param element 包含 offset 的元素
+         * @param offset  文件中的偏移
+         */
+        fun findReferences(element: PsiElement, offset: Int, target: JsonProperty): List<JsonKeyReference> {
+            val literal = findLiteral(element) ?: return emptyList()
+            val offsetInLiteral = offset - literal.textRange.startOffset
+            return literal.references.filterIsInstance<JsonKeyReference>().filter {
+                it.rangeInElement.containsOffset(offsetInLiteral) && it.isReferenceTo(target)
+            }
+        }
+
+        fun findLiteral(element: PsiElement): PsiElement? {
+            return PsiTreeUtil.getParentOfType(element, PsiLanguageInjectionHost::class.java, false)
+        }
+    }
+}
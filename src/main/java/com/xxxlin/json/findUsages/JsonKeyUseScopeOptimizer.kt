@@ -0,0 +1,24 @@
+package com.xxxlin.json.findUsages
+
+import com.intellij.ide.highlighter.JavaFileType
+import com.intellij.psi.PsiElement
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.search.UseScopeOptimizer
+import com.xxxlin.json.editor.JsonFeatureOptions
+import com.xxxlin.json.psi.JsonProperty
+import org.jetbrains.kotlin.idea.KotlinFileType
+
+/**
+ * 从 JSON 属性的通用单词搜索中排除 Java/Kotlin 文件，这些文件只由 [JsonKeyReferencesSearcher] 搜索，避免同一处字符串解析两次
+ */
+class JsonKeyUseScopeOptimizer : UseScopeOptimizer() {
+
+    override fun getScopeToExclude(element: PsiElement): GlobalSearchScope? {
+        if (element !is JsonProperty || !JsonFeatureOptions.instance.MATCH_STRING) {
+            return null
+        }
+        return GlobalSearchScope.getScopeRestrictedByFileTypes(
+            GlobalSearchScope.allScope(element.project), JavaFileType.INSTANCE, KotlinFileType.INSTANCE
+        )
+    }
+}
@@ -0,0 +1,71 @@
+package com.xxxlin.json.navigation
+
+import com.intellij.navigation.ChooseByNameContributorEx
+import com.intellij.navigation.NavigationItem
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.util.Processor
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.indexing.FindSymbolParameters
+import com.intellij.util.indexing.IdFilter
+import com.xxxlin.json.index.JsonKeyIndex
+import com.xxxlin.json.index.JsonKeyPathIndex
+import com.xxxlin.json.scope.JsonKeySourceScope
+
+/**
+ * Go to Symbol / Search Everywhere 中的 JSON key
+ *
+ * 名称直接来自 [JsonKeyIndex] 和 [JsonKeyPathIndex]：属性名，以及与 [JsonQualifiedNameProvider] 相同的 '.' 连接的完整路径；
+ * 匹配由平台按名称完成，导航项只记录文件和偏移
+ */
+class JsonKeyChooseByNameContributor : ChooseByNameContributorEx {
+
+    override fun processNames(processor: Processor<in String>, scope: GlobalSearchScope, filter: IdFilter?) {
+        val index = FileBasedIndex.getInstance()
+        val keyScope = keyScope(scope)
+        if (!index.processAllKeys(JsonKeyIndex.NAME, processor, keyScope, filter)) {
+            return
+        }
+        index.processAllKeys(JsonKeyPathIndex.NAME, { path ->
+            // 顶层路径与属性名相同，已在上面处理
+            path.indexOf(JsonKeyPathIndex.SEPARATOR) < 0 || processor.process(toQualifiedName(path))
+        }, keyScope, filter)
+    }
+
+    override fun processElementsWithName(
+        name: String,
+        processor: Processor<in NavigationItem>,
+        parameters: FindSymbolParameters
+    ) {
+        val project = parameters.project
+        val index = FileBasedIndex.getInstance()
+        val scope = keyScope(parameters.searchScope)
+        val seen = HashSet<JsonKeyNavigationItem>()
+        val process = { item: JsonKeyNavigationItem ->
+            ProgressManager.checkCanceled()
+            !seen.add(item) || processor.process(item)
+        }
+        val byName = index.processValues(JsonKeyIndex.NAME, name, null, { file, offsets ->
+            offsets.all { process(JsonKeyNavigationItem(project, file, it, name)) }
+        }, scope, parameters.idFilter)
+        if (!byName || name.indexOf('.') < 0) {
+            return
+        }
+        index.processValues(JsonKeyPathIndex.NAME, toPath(name), null, { file, offsets ->
+            offsets.isEmpty() || process(JsonKeyNavigationItem(project, file, offsets.last(), name))
+        }, scope, parameters.idFilter)
+    }
+
+    private fun keyScope(scope: GlobalSearchScope): GlobalSearchScope {
+        val project = scope.project ?: return scope
+        return scope.intersectWith(JsonKeySourceScope.getScope(project))
+    }
+
+    private fun toQualifiedName(path: String): String {
+        return path.replace(JsonKeyPathIndex.SEPARATOR, '.')
+    }
+
+    private fun toPath(qualifiedName: String): String {
+        return qualifiedName.replace('.', JsonKeyPathIndex.SEPARATOR)
+    }
+}
@@ -0,0 +1,95 @@
+package com.xxxlin.json.navigation
+
+import com.intellij.codeInsight.daemon.LineMarkerInfo
+import com.intellij.codeInsight.daemon.LineMarkerProviderDescriptor
+import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.util.NotNullLazyValue
+import com.intellij.psi.PsiElement
+import com.intellij.psi.SmartPointerManager
+import com.intellij.psi.util.PsiTreeUtil
+import com.xxxlin.json.JsonBundle
+import com.xxxlin.json.JsonIcons
+import com.xxxlin.json.editor.JsonFeatureOptions
+import com.xxxlin.json.psi.JsonProperty
+import com.xxxlin.json.reference.JsonKeyReference
+import com.xxxlin.json.resolve.JsonKeyLiteral
+import com.xxxlin.json.resolve.JsonKeyMatch
+import com.xxxlin.json.resolve.JsonKeyResolveEngine
+import com.xxxlin.json.resolve.JsonKeyResolveService
+import javax.swing.Icon
+
+/**
+ * 代码字符串行的 JSON key 导航图标
+ *
+ * 所有工作在 [collectSlowLineMarkers] 中完成：先收集可见范围内的字符串，对去重后的文本一次性分析；
+ * 图标只持有字符串的 SmartPsiElementPointer，点击时才解析目标属性，一个 key 在多个文件中时弹出列表
+ */
+class JsonKeyLineMarkerProvider : LineMarkerProviderDescriptor() {
+
+    override fun getName(): String {
+        return JsonBundle.message("line.marker.json.key")
+    }
+
+    override fun getIcon(): Icon {
+        return JsonIcons.FILE
+    }
+
+    override fun getLineMarkerInfo(element: PsiElement): LineMarkerInfo<*>? {
+        return null
+    }
+
+    override fun collectSlowLineMarkers(elements: List<PsiElement>, result: MutableCollection<in LineMarkerInfo<*>>) {
+        val options = JsonFeatureOptions.instance
+        if (!options.MATCH_STRING || elements.isEmpty()) {
+            return
+        }
+
+        val literals = elements.mapNotNull { JsonKeyLiteral.of(it) }
+        if (literals.isEmpty()) {
+            return
+        }
+        val project = literals[0].host.project
+        val matches = JsonKeyResolveService.getInstance(project)
+            .analyzeAll(literals.mapTo(LinkedHashSet()) { it.value }, options.MATCH_STRING_SLOT_BRACE)
+
+        for (literal in literals) {
+            ProgressManager.checkCanceled()
+            val literalMatches = matches[literal.value]
+                ?.filter { literal.toHostRanges(it.range).isNotEmpty() }
+                .orEmpty()
+            if (literalMatches.isEmpty()) {
+                continue
+            }
+            val leaf = PsiTreeUtil.getDeepestFirst(literal.host)
+            val pointer = SmartPointerManager.createPointer(literal.host)
+            val keyNames = literalMatches.map { it.keyName() }.distinct()
+            val marker = NavigationGutterIconBuilder.create(JsonIcons.FILE)
+                .setTargets(NotNullLazyValue.lazy {
+                    val host = pointer.element ?: return@lazy emptyList<JsonProperty>()
+                    resolve(host, literalMatches)
+                })
+                .setTooltipText(JsonBundle.message("line.marker.json.key.tooltip", keyNames.joinToString(", ")))
+                .setPopupTitle(JsonBundle.message("line.marker.json.key.popup"))
+                .createLineMarkerInfo(leaf)
+            result.add(marker)
+        }
+    }
+
+    private fun resolve(host: PsiElement, matches: List<JsonKeyMatch>): List<JsonProperty> {
+        val engine = JsonKeyResolveEngine.getInstance(host.project)
+        val result = LinkedHashSet<JsonProperty>()
+        for (match in matches) {
+            if (match.segment == JsonKeyReference.NO_SEGMENT) {
+                result.addAll(engine.findKey(match.keys[0]).items)
+            } else {
+                engine.findKeys(match.keys).items.mapTo(result) { it[match.segment] }
+            }
+        }
+        return result.toList()
+    }
+
+    private fun JsonKeyMatch.keyName(): String {
+        return if (segment == JsonKeyReference.NO_SEGMENT) keys[0] else keys[segment]
+    }
+}
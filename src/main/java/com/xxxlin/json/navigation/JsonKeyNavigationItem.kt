@@ -0,0 +1,66 @@
+package com.xxxlin.json.navigation
+
+import com.intellij.navigation.ItemPresentation
+import com.intellij.navigation.NavigationItem
+import com.intellij.openapi.fileEditor.OpenFileDescriptor
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.guessProjectDir
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.xxxlin.json.JsonIcons
+import javax.swing.Icon
+
+/**
+ * 按索引中的偏移定位属性的导航项，不加载 PSI
+ *
+ * @param offset 属性名 token 的起始偏移
+ * @param name   显示名称，单个 key 或以 '.' 连接的完整路径
+ */
+class JsonKeyNavigationItem(
+    private val project: Project,
+    private val file: VirtualFile,
+    private val offset: Int,
+    private val name: String
+) : NavigationItem, ItemPresentation {
+
+    override fun getName(): String {
+        return name
+    }
+
+    override fun getPresentation(): ItemPresentation {
+        return this
+    }
+
+    override fun getPresentableText(): String {
+        return name
+    }
+
+    override fun getLocationString(): String {
+        val root = project.guessProjectDir()
+        return root?.let { VfsUtilCore.getRelativePath(file, it) } ?: file.presentableUrl
+    }
+
+    override fun getIcon(unused: Boolean): Icon {
+        return JsonIcons.FILE
+    }
+
+    override fun navigate(requestFocus: Boolean) {
+        OpenFileDescriptor(project, file, offset).navigate(requestFocus)
+    }
+
+    override fun canNavigate(): Boolean {
+        return file.isValid
+    }
+
+    override fun canNavigateToSource(): Boolean {
+        return canNavigate()
+    }
+
+    override fun equals(other: Any?): Boolean {
+        return other is JsonKeyNavigationItem && other.file == file && other.offset == offset
+    }
+
+    override fun hashCode(): Int {
+        return file.hashCode() * 31 + offset
+    }
+}
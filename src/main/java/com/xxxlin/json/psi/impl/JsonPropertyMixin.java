@@ -1,25 +1,37 @@
 package com.xxxlin.json.psi.impl;
 
+import com.intellij.extapi.psi.StubBasedPsiElementBase;
 import com.intellij.lang.ASTNode;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.impl.source.resolve.reference.ReferenceProvidersRegistry;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.tree.IElementType;
 import com.intellij.util.ArrayUtil;
 import com.intellij.util.IncorrectOperationException;
 import com.xxxlin.json.psi.JsonElementGenerator;
 import com.xxxlin.json.psi.JsonProperty;
+import com.xxxlin.json.psi.stubs.JsonPropertyStub;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * @author Mikhail Golubev
  */
-abstract class JsonPropertyMixin extends JsonElementImpl implements JsonProperty {
+abstract class JsonPropertyMixin extends StubBasedPsiElementBase<JsonPropertyStub> implements JsonProperty {
   JsonPropertyMixin(@NotNull ASTNode node) {
     super(node);
   }
 
+  JsonPropertyMixin(@NotNull JsonPropertyStub stub, @NotNull IStubElementType<?, ?> nodeType) {
+    super(stub, nodeType);
+  }
+
+  JsonPropertyMixin(JsonPropertyStub stub, IElementType nodeType, ASTNode node) {
+    super(stub, nodeType, node);
+  }
+
   @Override
   public PsiElement setName(@NonNls @NotNull String name) throws IncorrectOperationException {
     final com.xxxlin.json.psi.JsonElementGenerator generator = new JsonElementGenerator(getProject());
@@ -38,4 +50,9 @@ abstract class JsonPropertyMixin extends JsonElementImpl implements JsonProperty
     final PsiReference[] fromProviders = ReferenceProvidersRegistry.getReferencesFromProviders(this);
     return ArrayUtil.prepend(new JsonPropertyNameReference(this), fromProviders);
   }
+
+  @Override
+  public String toString() {
+    return StringUtil.trimEnd(getClass().getSimpleName(), "Impl");
+  }
 }
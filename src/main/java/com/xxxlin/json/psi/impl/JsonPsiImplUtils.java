@@ -1,6 +1,7 @@
 // Copyright 2000-2023 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
 package com.xxxlin.json.psi.impl;
 
+import com.intellij.extapi.psi.StubBasedPsiElementBase;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.util.NlsSafe;
 import com.xxxlin.json.JsonDialectUtil;
@@ -18,6 +19,7 @@ import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.PlatformIcons;
 import com.xxxlin.json.JsonBundle;
 import com.xxxlin.json.psi.*;
+import com.xxxlin.json.psi.stubs.JsonPropertyStub;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -32,6 +34,14 @@ public final class JsonPsiImplUtils {
     static final Key<List<Pair<TextRange, String>>> STRING_FRAGMENTS = new Key<>("JSON string fragments");
 
     public static @NotNull String getName(@NotNull JsonProperty property) {
+        // 存根中已有属性名时不必加载 AST
+        if (property instanceof StubBasedPsiElementBase) {
+            @SuppressWarnings("unchecked")
+            JsonPropertyStub stub = ((StubBasedPsiElementBase<JsonPropertyStub>) property).getGreenStub();
+            if (stub != null) {
+                return stub.getName();
+            }
+        }
         String text = InjectedLanguageManager.getInstance(property.getProject()).getUnescapedText(property.getNameElement());
         return JsonTextLiteralService.getInstance().unquoteAndUnescape(text);
     }
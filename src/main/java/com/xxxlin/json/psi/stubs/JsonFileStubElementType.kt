@@ -0,0 +1,17 @@
+package com.xxxlin.json.psi.stubs
+
+import com.intellij.psi.stubs.PsiFileStub
+import com.intellij.psi.tree.IStubFileElementType
+import com.xxxlin.json.JsonLanguage
+import com.xxxlin.json.psi.JsonFile
+
+class JsonFileStubElementType : IStubFileElementType<PsiFileStub<JsonFile>>(JsonLanguage.INSTANCE) {
+
+    override fun getStubVersion(): Int {
+        return 1
+    }
+
+    override fun getExternalId(): String {
+        return "json-ext.FILE"
+    }
+}
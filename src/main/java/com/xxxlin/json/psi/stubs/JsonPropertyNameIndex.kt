@@ -0,0 +1,24 @@
+package com.xxxlin.json.psi.stubs
+
+import com.intellij.psi.stubs.StringStubIndexExtension
+import com.intellij.psi.stubs.StubIndexKey
+import com.xxxlin.json.psi.JsonProperty
+
+/**
+ * 属性名存根索引，通过它拿到的 [JsonProperty] 由存根支撑，不会加载整个文件的 AST
+ */
+class JsonPropertyNameIndex : StringStubIndexExtension<JsonProperty>() {
+
+    override fun getKey(): StubIndexKey<String, JsonProperty> {
+        return KEY
+    }
+
+    override fun getVersion(): Int {
+        return super.getVersion() + 1
+    }
+
+    companion object {
+        @JvmField
+        val KEY: StubIndexKey<String, JsonProperty> = StubIndexKey.createIndexKey("json-ext.property.name")
+    }
+}
@@ -0,0 +1,22 @@
+package com.xxxlin.json.psi.stubs
+
+import com.intellij.psi.stubs.IStubElementType
+import com.intellij.psi.stubs.StubBase
+import com.intellij.psi.stubs.StubElement
+import com.xxxlin.json.psi.JsonProperty
+
+/**
+ * [JsonProperty] 的存根，只保存属性名
+ *
+ * 对象本身没有存根，所以属性存根的父存根就是以该对象为值的属性（或文件），
+ * 存根树天然保留了 key 的层级
+ *
+ * @param isPathSegment 所在对象是文件第一个顶层对象，或是另一个 [isPathSegment] 属性的值，
+ * 即能作为多级 key 的一级参与匹配
+ */
+class JsonPropertyStub(
+    parent: StubElement<*>?,
+    elementType: IStubElementType<*, *>,
+    val name: String,
+    val isPathSegment: Boolean
+) : StubBase<JsonProperty>(parent, elementType)
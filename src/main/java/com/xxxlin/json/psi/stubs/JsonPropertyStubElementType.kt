@@ -0,0 +1,53 @@
+package com.xxxlin.json.psi.stubs
+
+import com.intellij.psi.PsiElement
+import com.intellij.psi.stubs.IStubElementType
+import com.intellij.psi.stubs.IndexSink
+import com.intellij.psi.stubs.StubElement
+import com.intellij.psi.stubs.StubInputStream
+import com.intellij.psi.stubs.StubOutputStream
+import com.intellij.psi.util.PsiTreeUtil
+import com.xxxlin.json.JsonLanguage
+import com.xxxlin.json.psi.JsonFile
+import com.xxxlin.json.psi.JsonObject
+import com.xxxlin.json.psi.JsonProperty
+import com.xxxlin.json.psi.impl.JsonPropertyImpl
+
+class JsonPropertyStubElementType(debugName: String) :
+    IStubElementType<JsonPropertyStub, JsonProperty>(debugName, JsonLanguage.INSTANCE) {
+
+    override fun getExternalId(): String {
+        return "json-ext.$debugName"
+    }
+
+    override fun createPsi(stub: JsonPropertyStub): JsonProperty {
+        return JsonPropertyImpl(stub, this)
+    }
+
+    override fun createStub(psi: JsonProperty, parentStub: StubElement<out PsiElement>?): JsonPropertyStub {
+        return JsonPropertyStub(parentStub, this, psi.name, isPathSegment(psi, parentStub))
+    }
+
+    private fun isPathSegment(psi: JsonProperty, parentStub: StubElement<*>?): Boolean {
+        val jsonObject = psi.parent as? JsonObject ?: return false
+        return when (val owner = jsonObject.parent) {
+            is JsonProperty -> (parentStub as? JsonPropertyStub)?.isPathSegment == true
+            is JsonFile -> PsiTreeUtil.getChildOfType(owner, JsonObject::class.java) === jsonObject
+            else -> false
+        }
+    }
+
+    override fun serialize(stub: JsonPropertyStub, dataStream: StubOutputStream) {
+        dataStream.writeName(stub.name)
+        dataStream.writeBoolean(stub.isPathSegment)
+    }
+
+    override fun deserialize(dataStream: StubInputStream, parentStub: StubElement<*>?): JsonPropertyStub {
+        val name = dataStream.readNameString() ?: ""
+        return JsonPropertyStub(parentStub, this, name, dataStream.readBoolean())
+    }
+
+    override fun indexStub(stub: JsonPropertyStub, sink: IndexSink) {
+        sink.occurrence(JsonPropertyNameIndex.KEY, stub.name)
+    }
+}
@@ -0,0 +1,21 @@
+package com.xxxlin.json.psi.stubs
+
+import com.intellij.psi.tree.IElementType
+import com.xxxlin.json.JsonElementType
+
+/**
+ * json.bnf 中 elementTypeFactory 指向此处，为需要存根的规则创建元素类型
+ */
+object JsonStubElementTypes {
+
+    @JvmField
+    val FILE: JsonFileStubElementType = JsonFileStubElementType()
+
+    @JvmStatic
+    fun create(debugName: String): IElementType {
+        return when (debugName) {
+            "PROPERTY" -> JsonPropertyStubElementType(debugName)
+            else -> JsonElementType(debugName)
+        }
+    }
+}
@@ -1,163 +1,213 @@
 package com.xxxlin.json
 
-import com.intellij.lang.ASTNode
+import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.project.Project
-import com.intellij.psi.PsiElement
+import com.intellij.openapi.roots.ProjectRootModificationTracker
+import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiManager
+import com.intellij.psi.impl.source.PsiFileImpl
 import com.intellij.psi.search.FileTypeIndex
-import com.intellij.psi.search.GlobalSearchScope
-import com.intellij.psi.tree.IElementType
+import com.intellij.psi.stubs.StubElement
+import com.intellij.psi.stubs.StubIndex
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.util.indexing.FileBasedIndex
+import com.xxxlin.json.editor.JsonKeySourceOptions
+import com.xxxlin.json.index.JsonKeyFilter
+import com.xxxlin.json.index.JsonKeyIndex
+import com.xxxlin.json.index.JsonKeyPathIndex
+import com.xxxlin.json.index.JsonKeySnapshot
 import com.xxxlin.json.psi.JsonFile
-import com.xxxlin.json.psi.JsonObject
 import com.xxxlin.json.psi.JsonProperty
+import com.xxxlin.json.psi.stubs.JsonPropertyNameIndex
+import com.xxxlin.json.psi.stubs.JsonPropertyStub
+import com.xxxlin.json.scope.JsonKeySourceScope
 
 object JsonLanguageUtil {
 
-    private fun findByType(e: PsiElement, type: IElementType): List<ASTNode> {
-        val result = mutableListOf<ASTNode>()
-        findByType(e, type, result)
-        return result
-    }
-
-    private fun findByType(e: PsiElement, type: IElementType, result: MutableList<ASTNode>) {
-        val node = e.node.findChildByType(type)
-        if (node != null) {
-            result.add(node)
-        }
-        e.children.forEach {
-            findByType(it, type, result)
+    fun findAllJsonFile(project: Project): List<JsonFile> {
+        val result = ArrayList<JsonFile>()
+        val psiManager = PsiManager.getInstance(project)
+        for (virtualFile in findAllJsonVirtualFile(project)) {
+            val file = psiManager.findFile(virtualFile) as? JsonFile? ?: continue
+            result.add(file)
         }
-    }
-
-    private fun <T : PsiElement> findByClass(e: PsiElement, type: Class<T>): List<PsiElement> {
-        val result = mutableListOf<PsiElement>()
-        findByClass(e, type, result)
         return result
     }
 
-    private fun <T : PsiElement> findByClass(e: PsiElement, type: Class<T>, result: MutableList<PsiElement>) {
-        if (type.isAssignableFrom(e.javaClass)) {
-            result.add(e)
-        }
-        e.children.forEach {
-            findByClass(it, type, result)
+    /**
+     * 只在 JSON 文件或项目结构变化时重新查询
+     */
+    fun findAllJsonVirtualFile(project: Project): Collection<VirtualFile> {
+        return CachedValuesManager.getManager(project).getCachedValue(project) {
+            CachedValueProvider.Result.create(
+                FileTypeIndex.getFiles(JsonFileType.INSTANCE, JsonKeySourceScope.getScope(project)),
+                JsonModificationTracker.getInstance(project),
+                JsonKeySourceOptions.getInstance(project).modificationTracker,
+                ProjectRootModificationTracker.getInstance(project)
+            )
         }
     }
 
-    private fun hasByType(e: PsiElement, type: IElementType, filter: (PsiElement) -> Boolean): Boolean {
-        val node = e.node.findChildByType(type)
-        if (node != null) {
-            if (filter(node.psi)) {
-                return true
-            }
+    /**
+     * 仅查询索引判断是否存在该 key，不加载任何 PSI；索引不可用时查询快照
+     */
+    fun containsJsonKey(project: Project, key: String): Boolean {
+        if (JsonKeySnapshot.isActive(project)) {
+            return JsonKeySnapshot.getInstance(project).containsKey(key)
         }
-
-        for (row in e.children) {
-            if (hasByType(row, type, filter)) {
-                return true
-            }
+        val filter = JsonKeyFilter.getInstance(project)
+        if (!filter.mightContain(key)) {
+            return false
+        }
+        val result = !FileBasedIndex.getInstance().processValues(
+            JsonKeyIndex.NAME, key, null,
+            { _, _ -> false },
+            JsonKeySourceScope.getScope(project)
+        )
+        if (!result) {
+            filter.reportFalsePositive()
         }
-        return false
+        return result
     }
 
-    fun findAllJsonFile(project: Project): List<JsonFile> {
-        val result = ArrayList<JsonFile>()
-        val virtualFiles = FileTypeIndex.getFiles(JsonFileType.INSTANCE, GlobalSearchScope.projectScope(project))
-        for (virtualFile in virtualFiles) {
-            val file = PsiManager.getInstance(project).findFile(virtualFile) as? JsonFile? ?: continue
-            result.add(file)
+    fun hasJsonKey(project: Project, key: String): JsonProperty? {
+        var result: JsonProperty? = null
+        processJsonKey(project, key) {
+            result = it
+            false
         }
         return result
     }
 
-    fun hasJsonKey(project: Project, key: String): JsonProperty? {
-        val fileList = findAllJsonFile(project)
-        for (jsonFile in fileList) {
-            val list = findByClass(jsonFile, JsonProperty::class.java).map {
-                it as JsonProperty
-            }
-            for (property in list) {
-                if (property.name == key) {
-                    return property
-                }
-            }
+    /**
+     * 仅查询索引判断是否存在多级 key，不加载任何 PSI；索引不可用时查询快照
+     */
+    fun containsJsonKeys(project: Project, keys: List<String>): Boolean {
+        val path = JsonKeyPathIndex.toPath(keys)
+        if (JsonKeySnapshot.isActive(project)) {
+            return JsonKeySnapshot.getInstance(project).containsPath(path)
         }
-        return null
+        val filter = JsonKeyFilter.getInstance(project)
+        if (!filter.mightContain(path)) {
+            return false
+        }
+        val result = !FileBasedIndex.getInstance().processValues(
+            JsonKeyPathIndex.NAME, path, null,
+            { _, _ -> false },
+            JsonKeySourceScope.getScope(project)
+        )
+        if (!result) {
+            filter.reportFalsePositive()
+        }
+        return result
     }
 
     /**
      * 检查多级key
      */
     fun hasJsonKeys(project: Project, keys: List<String>): JsonProperty? {
-        val fileList = findAllJsonFile(project)
-        for (jsonFile in fileList) {
-            var node: PsiElement? = jsonFile.children.firstOrNull {
-                it is JsonObject
-            }
-            for (index in keys.indices) {
-                val key = keys[index]
-                node = node?.children?.filterIsInstance<JsonProperty>()?.firstOrNull {
-                    it.name == key
-                }
-                if (index != keys.lastIndex) {
-                    node = node?.children?.filterIsInstance<JsonObject>()?.firstOrNull()
-                }
-                if (node == null) {
-                    break
-                }
-            }
-            if (node != null) {
-                return node as? JsonProperty
-            }
+        var result: JsonProperty? = null
+        processJsonKeys(project, keys) {
+            result = it.last()
+            false
         }
-        return null
+        return result
     }
 
     fun findAllJsonKey(project: Project, key: String): List<JsonProperty> {
         val result = mutableListOf<JsonProperty>()
-        val fileList = findAllJsonFile(project)
-        for (jsonFile in fileList) {
-            val list = findByClass(jsonFile, JsonProperty::class.java).map {
-                it as JsonProperty
-            }
-            for (property in list) {
-                if (property.name == key) {
-                    result.add(property)
-                }
-            }
+        processJsonKey(project, key) {
+            result.add(it)
+            true
         }
         return result
     }
 
+    /**
+     * 通过属性名存根索引查找属性，得到的属性由存根支撑，不会加载 AST
+     *
+     * processor 返回 false 时停止查找
+     */
+    fun processJsonKey(project: Project, key: String, processor: (JsonProperty) -> Boolean) {
+        if (!JsonKeyFilter.getInstance(project).mightContain(key)) {
+            return
+        }
+        StubIndex.getInstance().processElements(
+            JsonPropertyNameIndex.KEY, key, project,
+            JsonKeySourceScope.getScope(project),
+            JsonProperty::class.java
+        ) {
+            ProgressManager.checkCanceled()
+            processor(it)
+        }
+    }
+
+    /**
+     * 根据索引中记录的偏移定位属性
+     */
+    fun findPropertyAt(jsonFile: JsonFile, offset: Int): JsonProperty? {
+        val leaf = jsonFile.findElementAt(offset) ?: return null
+        val property = PsiTreeUtil.getParentOfType(leaf, JsonProperty::class.java) ?: return null
+        return if (property.textRange.startOffset == offset) property else null
+    }
+
     /**
      * 在所有json文件中搜索符合条件的多级key对应的属性列表
+     *
+     * 每个文件返回一组，组内依次是每一级 key 对应的属性
      */
     fun findAllJsonKeys(project: Project, keys: List<String>): List<List<JsonProperty>> {
-        val result = mutableListOf<MutableList<JsonProperty>>()
-        val fileList = findAllJsonFile(project)
-        for (jsonFile in fileList) {
-            val list = mutableListOf<JsonProperty>()
-            var node: PsiElement? = jsonFile.children.firstOrNull {
-                it is JsonObject
-            }
-            for (index in keys.indices) {
-                val key = keys[index]
-                node = node?.children?.filterIsInstance<JsonProperty>()?.firstOrNull {
-                    it.name == key
-                }
-                if (node != null) {
-                    list.add(node)
-                }
-                if (index != keys.lastIndex) {
-                    node = node?.children?.filterIsInstance<JsonObject>()?.firstOrNull()
+        val result = mutableListOf<List<JsonProperty>>()
+        processJsonKeys(project, keys) {
+            result.add(it)
+            true
+        }
+        return result
+    }
+
+    /**
+     * 通过多级 key 索引一次查询得到每一级属性，不遍历 PSI 树
+     *
+     * processor 返回 false 时停止查找
+     */
+    fun processJsonKeys(project: Project, keys: List<String>, processor: (List<JsonProperty>) -> Boolean) {
+        val path = JsonKeyPathIndex.toPath(keys)
+        if (!JsonKeyFilter.getInstance(project).mightContain(path)) {
+            return
+        }
+        val psiManager = PsiManager.getInstance(project)
+        FileBasedIndex.getInstance().processValues(
+            JsonKeyPathIndex.NAME, path, null,
+            { virtualFile, offsets ->
+                ProgressManager.checkCanceled()
+                val jsonFile = psiManager.findFile(virtualFile) as? JsonFile? ?: return@processValues true
+                val list = findJsonKeysByStub(jsonFile, keys) ?: offsets.mapNotNull { findPropertyAt(jsonFile, it) }
+                if (list.size != keys.size) {
+                    return@processValues true
                 }
-            }
-            if (node != null && node is JsonProperty && list.size == keys.size) {
-                list.add(node)
-                result.add(list)
-                break
-            }
+                processor(list)
+            },
+            JsonKeySourceScope.getScope(project)
+        )
+    }
+
+    /**
+     * AST 未加载时沿存根树逐级匹配多级 key；AST 已加载时返回 null，由调用方按偏移定位
+     */
+    private fun findJsonKeysByStub(jsonFile: JsonFile, keys: List<String>): List<JsonProperty>? {
+        val stubTree = (jsonFile as? PsiFileImpl)?.stubTree ?: return null
+        val result = ArrayList<JsonProperty>(keys.size)
+        var children: List<StubElement<*>> = stubTree.root.childrenStubs
+        for (key in keys) {
+            ProgressManager.checkCanceled()
+            val stub = children.firstOrNull {
+                it is JsonPropertyStub && it.isPathSegment && it.name == key
+            } as? JsonPropertyStub ?: return emptyList()
+            result.add(stub.psi)
+            children = stub.childrenStubs
         }
         return result
     }
-}
\ No newline at end of file
+}
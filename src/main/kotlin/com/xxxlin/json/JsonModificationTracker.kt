@@ -0,0 +1,85 @@
+package com.xxxlin.json
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.fileTypes.FileTypeRegistry
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.SimpleModificationTracker
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.openapi.vfs.newvfs.BulkFileListener
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent
+import com.intellij.psi.PsiManager
+import com.intellij.psi.PsiTreeChangeAdapter
+import com.intellij.psi.PsiTreeChangeEvent
+import com.intellij.util.PathUtil
+import com.xxxlin.json.psi.JsonFile
+
+/**
+ * 只在 json-ext 文件变化时递增的修改计数
+ *
+ * 基于 JSON key 的缓存依赖它而不是 PsiModificationTracker.MODIFICATION_COUNT，
+ * 编辑 Java/Kotlin 代码时缓存不会失效
+ */
+@Service(Service.Level.PROJECT)
+class JsonModificationTracker(project: Project) : SimpleModificationTracker(), Disposable {
+
+    init {
+        PsiManager.getInstance(project).addPsiTreeChangeListener(object : PsiTreeChangeAdapter() {
+            override fun childAdded(event: PsiTreeChangeEvent) = onPsiChange(event)
+
+            override fun childRemoved(event: PsiTreeChangeEvent) = onPsiChange(event)
+
+            override fun childReplaced(event: PsiTreeChangeEvent) = onPsiChange(event)
+
+            override fun childMoved(event: PsiTreeChangeEvent) = onPsiChange(event)
+
+            override fun childrenChanged(event: PsiTreeChangeEvent) = onPsiChange(event)
+
+            override fun propertyChanged(event: PsiTreeChangeEvent) = onPsiChange(event)
+        }, this)
+
+        project.messageBus.connect(this).subscribe(VirtualFileManager.VFS_CHANGES, object : BulkFileListener {
+            override fun after(events: List<VFileEvent>) {
+                if (events.any { isJsonFileEvent(it) }) {
+                    incModificationCount()
+                }
+            }
+        })
+    }
+
+    private fun onPsiChange(event: PsiTreeChangeEvent) {
+        // 文件级事件（增删文件）时 event.file 为空，变化的文件在 child 中
+        if (isJsonFile(event.file) || isJsonFile(event.child) || isJsonFile(event.oldChild)) {
+            incModificationCount()
+        }
+    }
+
+    private fun isJsonFile(element: Any?): Boolean {
+        return element is JsonFile && element.language == JsonLanguage.INSTANCE
+    }
+
+    private fun isJsonFileEvent(event: VFileEvent): Boolean {
+        if (isJsonFileName(PathUtil.getFileName(event.path))) {
+            return true
+        }
+        // 重命名时旧文件名也可能是 JSON 文件
+        if (event is VFilePropertyChangeEvent && event.isRename) {
+            return isJsonFileName(event.oldValue as? String ?: return false)
+        }
+        return false
+    }
+
+    private fun isJsonFileName(fileName: String): Boolean {
+        return FileTypeRegistry.getInstance().getFileTypeByFileName(fileName) == JsonFileType.INSTANCE
+    }
+
+    override fun dispose() {
+    }
+
+    companion object {
+        @JvmStatic
+        fun getInstance(project: Project): JsonModificationTracker = project.service()
+    }
+}
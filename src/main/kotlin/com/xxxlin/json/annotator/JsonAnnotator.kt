@@ -13,18 +13,13 @@ import com.xxxlin.json.highlighting.JsonSyntaxHighlighterFactory
 import com.xxxlin.json.psi.JsonStringLiteral
 import com.xxxlin.json.psi.JsonValue
 import com.xxxlin.utils.LogUtil
-import com.xxxlin.utils.contains
+import com.xxxlin.utils.SlotScanner
 
 /**
  * Json 字符串注解
  */
 class JsonAnnotator : Annotator {
 
-    private val slotNameRegex: Regex = Regex(
-        "%[a-zA-Z_]+%",
-        hashSetOf(RegexOption.IGNORE_CASE)
-    )
-
     override fun annotate(element: PsiElement, holder: AnnotationHolder) {
         if (!JsonFeatureOptions.instance.JSON_KEY_PERCENT_SLOT_HIGHLIGHT) {
             return
@@ -59,15 +54,12 @@ class JsonAnnotator : Annotator {
         element: JsonStringLiteral,
         holder: AnnotationHolder
     ) {
-        val list = slotNameRegex.findAll(text, 0)
-        val iterator = list.iterator()
-        while (iterator.hasNext()) {
-            val row = iterator.next()
-            val range = row.range
-            val slotName = row.value
+        val scanner = SlotScanner.percent()
+        val count = scanner.scan(text)
+        for (i in 0 until count) {
             val keyRange = TextRange(
-                textRange.startOffset + range.first,
-                textRange.startOffset + range.last + 1
+                textRange.startOffset + scanner.start(i),
+                textRange.startOffset + scanner.end(i)
             )
             holder.newSilentAnnotation(HighlightSeverity.INFORMATION)
                 .range(keyRange)
@@ -0,0 +1,35 @@
+package com.xxxlin.json.annotator
+
+import com.intellij.lang.annotation.AnnotationHolder
+import com.intellij.lang.annotation.Annotator
+import com.intellij.lang.annotation.HighlightSeverity
+import com.intellij.openapi.project.DumbAware
+import com.intellij.psi.PsiElement
+import com.xxxlin.json.editor.JsonFeatureOptions
+import com.xxxlin.json.highlighting.JsonSyntaxHighlighterFactory
+import com.xxxlin.json.resolve.JsonKeyLiteral
+
+/**
+ * 代码字符串注解，Java、Kotlin 等语言共用
+ */
+class JsonKeyAnnotator : Annotator, DumbAware {
+
+    override fun annotate(element: PsiElement, holder: AnnotationHolder) {
+        val options = JsonFeatureOptions.instance
+        // 批量模式由 JsonKeyExternalAnnotator 处理
+        if (!options.MATCH_STRING || options.BATCH_ANNOTATE) {
+            return
+        }
+
+        val literal = JsonKeyLiteral.of(element) ?: return
+        val start = element.textRange.startOffset
+        for (match in literal.analyze(options.MATCH_STRING_SLOT_BRACE)) {
+            for (range in literal.toHostRanges(match.range)) {
+                holder.newSilentAnnotation(HighlightSeverity.INFORMATION)
+                    .range(range.shiftRight(start))
+                    .textAttributes(JsonSyntaxHighlighterFactory.JSON_NUMBER)
+                    .create()
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.xxxlin.json.annotator
+
+import com.intellij.lang.annotation.AnnotationHolder
+import com.intellij.lang.annotation.ExternalAnnotator
+import com.intellij.lang.annotation.HighlightSeverity
+import com.intellij.openapi.application.runReadAction
+import com.intellij.openapi.project.DumbAware
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor
+import com.xxxlin.json.editor.JsonFeatureOptions
+import com.xxxlin.json.highlighting.JsonSyntaxHighlighterFactory
+import com.xxxlin.json.resolve.JsonKeyLiteral
+import com.xxxlin.json.resolve.JsonKeyResolveService
+
+/**
+ * 批量模式下的 Java/Kotlin 字符串注解
+ *
+ * 先在读操作中收集整个文件的字符串，再在后台对去重后的文本一次性分析，最后统一添加注解
+ */
+class JsonKeyExternalAnnotator : ExternalAnnotator<JsonKeyExternalAnnotator.Info, List<TextRange>>(), DumbAware {
+
+    /**
+     * @param literals 字符串及其在文件中的起始偏移
+     */
+    class Info(val project: Project, val literals: List<Pair<JsonKeyLiteral, Int>>, val matchSlot: Boolean)
+
+    override fun collectInformation(file: PsiFile): Info? {
+        val options = JsonFeatureOptions.instance
+        if (!options.MATCH_STRING || !options.BATCH_ANNOTATE) {
+            return null
+        }
+
+        val literals = mutableListOf<Pair<JsonKeyLiteral, Int>>()
+        file.accept(object : PsiRecursiveElementWalkingVisitor() {
+            override fun visitElement(element: PsiElement) {
+                val literal = JsonKeyLiteral.of(element)
+                if (literal != null) {
+                    literals.add(literal to element.textRange.startOffset)
+                    return
+                }
+                super.visitElement(element)
+            }
+        })
+        if (literals.isEmpty()) {
+            return null
+        }
+        return Info(file.project, literals, options.MATCH_STRING_SLOT_BRACE)
+    }
+
+    override fun doAnnotate(info: Info): List<TextRange> {
+        return runReadAction {
+            if (info.project.isDisposed) {
+                return@runReadAction emptyList()
+            }
+            val texts = info.literals.mapTo(LinkedHashSet()) { it.first.value }
+            val matches = JsonKeyResolveService.getInstance(info.project).analyzeAll(texts, info.matchSlot)
+            val result = mutableListOf<TextRange>()
+            for ((literal, start) in info.literals) {
+                matches[literal.value]?.forEach { match ->
+                    literal.toHostRanges(match.range).mapTo(result) { it.shiftRight(start) }
+                }
+            }
+            result
+        }
+    }
+
+    override fun apply(file: PsiFile, annotationResult: List<TextRange>, holder: AnnotationHolder) {
+        for (range in annotationResult) {
+            holder.newSilentAnnotation(HighlightSeverity.INFORMATION)
+                .range(range)
+                .textAttributes(JsonSyntaxHighlighterFactory.JSON_NUMBER)
+                .create()
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.xxxlin.json.completion
+
+import com.intellij.codeInsight.completion.CompletionContributor
+import com.intellij.codeInsight.completion.CompletionParameters
+import com.intellij.codeInsight.completion.CompletionProvider
+import com.intellij.codeInsight.completion.CompletionResultSet
+import com.intellij.codeInsight.completion.CompletionType
+import com.intellij.codeInsight.completion.PlainPrefixMatcher
+import com.intellij.codeInsight.lookup.LookupElementBuilder
+import com.intellij.patterns.PlatformPatterns
+import com.intellij.psi.ElementManipulators
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiLiteralExpression
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.util.ProcessingContext
+import com.xxxlin.json.JsonIcons
+import com.xxxlin.json.editor.JsonFeatureOptions
+import org.jetbrains.kotlin.psi.KtStringTemplateExpression
+
+/**
+ * Java/Kotlin 字符串中补全 JSON key 和多级 key
+ */
+class JsonKeyCompletionContributor : CompletionContributor() {
+
+    init {
+        extend(
+            CompletionType.BASIC,
+            PlatformPatterns.psiElement().inside(PsiLiteralExpression::class.java),
+            KeyCompletionProvider(PsiLiteralExpression::class.java)
+        )
+        extend(
+            CompletionType.BASIC,
+            PlatformPatterns.psiElement().inside(KtStringTemplateExpression::class.java),
+            KeyCompletionProvider(KtStringTemplateExpression::class.java)
+        )
+    }
+
+    private class KeyCompletionProvider(
+        private val literalClass: Class<out PsiElement>
+    ) : CompletionProvider<CompletionParameters>() {
+
+        override fun addCompletions(
+            parameters: CompletionParameters,
+            context: ProcessingContext,
+            result: CompletionResultSet
+        ) {
+            if (!JsonFeatureOptions.instance.MATCH_STRING) {
+                return
+            }
+
+            val literal = PsiTreeUtil.getParentOfType(parameters.position, literalClass, false) ?: return
+            if (!literal.text.startsWith("\"")) {
+                return
+            }
+            // 补全副本中插入了占位符，只取光标前的原始文本作为前缀；
+            // 内容起点由 manipulator 给出，Kotlin 的 """ 字符串和 Java 文本块的引号不止一个字符
+            val contentStart = literal.textRange.startOffset + ElementManipulators.getValueTextRange(literal).startOffset
+            if (parameters.offset < contentStart) {
+                return
+            }
+            val prefix = parameters.originalFile.viewProvider.contents
+                .subSequence(contentStart, parameters.offset).toString()
+
+            val keys = JsonKeyCompletionService.getInstance(literal.project).findByPrefix(prefix, LIMIT)
+            if (keys.size >= LIMIT) {
+                result.restartCompletionOnAnyPrefixChange()
+            }
+
+            val resultSet = result.withPrefixMatcher(PlainPrefixMatcher(prefix))
+            for (key in keys) {
+                resultSet.addElement(
+                    LookupElementBuilder.create(key)
+                        .withIcon(JsonIcons.FILE)
+                        .withTypeText("JSON")
+                )
+            }
+        }
+    }
+
+    companion object {
+        private const val LIMIT = 200
+    }
+}
@@ -0,0 +1,101 @@
+package com.xxxlin.json.completion
+
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.indexing.FileBasedIndex
+import com.xxxlin.json.JsonLanguageUtil
+import com.xxxlin.json.JsonModificationTracker
+import com.xxxlin.json.index.JsonKeyIndex
+import com.xxxlin.json.index.JsonKeyPathIndex
+
+/**
+ * 维护项目所有 key 和多级 key 路径的前缀树，供代码字符串中的补全使用
+ *
+ * JSON 文件变化后只重新读取修改过的文件在索引中的 key，并在前缀树中增删差异部分。
+ * 读取索引时不持有锁，只在把差异写入前缀树和查询时加锁，避免补全线程排队等待索引更新
+ */
+@Service(Service.Level.PROJECT)
+class JsonKeyCompletionService(private val project: Project) {
+
+    private val lock = Any()
+
+    private val trie = JsonKeyTrie()
+
+    private val files = HashMap<VirtualFile, FileKeys>()
+
+    private val tracker = JsonModificationTracker.getInstance(project)
+
+    @Volatile
+    private var trackerStamp: Long = -1
+
+    /**
+     * @param stamp 读取 key 时文件（或文档）的修改戳
+     */
+    private class FileKeys(val stamp: Long, val keys: Set<String>)
+
+    fun findByPrefix(prefix: String, limit: Int): List<String> {
+        update()
+        synchronized(lock) {
+            return trie.findByPrefix(prefix, limit)
+        }
+    }
+
+    private fun update() {
+        val stamp = tracker.modificationCount
+        if (stamp <= trackerStamp) {
+            return
+        }
+
+        // 在锁外计算差异
+        val current = JsonLanguageUtil.findAllJsonVirtualFile(project).toHashSet()
+        val known = synchronized(lock) { files.mapValues { it.value.stamp } }
+        val changed = HashMap<VirtualFile, FileKeys>()
+        for (file in current) {
+            val fileStamp = modificationStamp(file)
+            if (known[file] != fileStamp) {
+                changed[file] = FileKeys(fileStamp, readKeys(file))
+            }
+        }
+
+        synchronized(lock) {
+            // 其它线程已经写入了更新的结果
+            if (stamp <= trackerStamp) {
+                return
+            }
+            val iterator = files.entries.iterator()
+            while (iterator.hasNext()) {
+                val entry = iterator.next()
+                if (entry.key !in current) {
+                    entry.value.keys.forEach(trie::remove)
+                    iterator.remove()
+                }
+            }
+            for ((file, keys) in changed) {
+                files.put(file, keys)?.keys?.forEach(trie::remove)
+                keys.keys.forEach(trie::add)
+            }
+            trackerStamp = stamp
+        }
+    }
+
+    private fun readKeys(file: VirtualFile): Set<String> {
+        val index = FileBasedIndex.getInstance()
+        val result = HashSet<String>()
+        result.addAll(index.getFileData(JsonKeyIndex.NAME, file, project).keys)
+        result.addAll(index.getFileData(JsonKeyPathIndex.NAME, file, project).keys)
+        return result
+    }
+
+    private fun modificationStamp(file: VirtualFile): Long {
+        val document = FileDocumentManager.getInstance().getCachedDocument(file)
+        return document?.modificationStamp ?: file.modificationStamp
+    }
+
+    companion object {
+        @JvmStatic
+        fun getInstance(project: Project): JsonKeyCompletionService = project.service()
+    }
+}
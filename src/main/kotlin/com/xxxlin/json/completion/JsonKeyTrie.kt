@@ -0,0 +1,133 @@
+package com.xxxlin.json.completion
+
+/**
+ * key 前缀树，支持增量增删
+ *
+ * 同一个 key 可以被多次插入（例如多个文件中都有），按引用计数删除；
+ * 删除后没有任何 key 的分支会被剪掉，因此前缀查询只会走到真正存在结果的节点，
+ * 耗时与前缀长度加结果数量成正比
+ */
+class JsonKeyTrie {
+
+    private class Node {
+        var chars: CharArray = EMPTY_CHARS
+        var children: Array<Node?> = EMPTY_NODES
+        var childCount: Int = 0
+
+        /**
+         * 以此节点结尾的 key 被插入的次数
+         */
+        var count: Int = 0
+
+        fun child(c: Char): Node? {
+            for (i in 0 until childCount) {
+                if (chars[i] == c) {
+                    return children[i]
+                }
+            }
+            return null
+        }
+
+        fun getOrAddChild(c: Char): Node {
+            child(c)?.let { return it }
+            if (childCount == chars.size) {
+                val size = if (childCount == 0) 2 else childCount * 2
+                chars = chars.copyOf(size)
+                children = children.copyOf(size)
+            }
+            val node = Node()
+            chars[childCount] = c
+            children[childCount] = node
+            childCount++
+            return node
+        }
+
+        fun removeChild(c: Char) {
+            for (i in 0 until childCount) {
+                if (chars[i] == c) {
+                    val last = childCount - 1
+                    chars[i] = chars[last]
+                    children[i] = children[last]
+                    children[last] = null
+                    childCount = last
+                    return
+                }
+            }
+        }
+    }
+
+    private val root = Node()
+
+    /**
+     * 不同 key 的数量
+     */
+    var size: Int = 0
+        private set
+
+    fun add(key: String) {
+        var node = root
+        for (c in key) {
+            node = node.getOrAddChild(c)
+        }
+        if (node.count++ == 0) {
+            size++
+        }
+    }
+
+    fun remove(key: String) {
+        val path = arrayOfNulls<Node>(key.length + 1)
+        var node = root
+        path[0] = node
+        for (i in key.indices) {
+            node = node.child(key[i]) ?: return
+            path[i + 1] = node
+        }
+        if (node.count == 0) {
+            return
+        }
+        if (--node.count > 0) {
+            return
+        }
+        size--
+        // 剪掉不再通向任何 key 的节点
+        for (i in key.length downTo 1) {
+            val current = path[i]!!
+            if (current.count > 0 || current.childCount > 0) {
+                break
+            }
+            path[i - 1]!!.removeChild(key[i - 1])
+        }
+    }
+
+    /**
+     * @param limit 最多返回的数量
+     */
+    fun findByPrefix(prefix: String, limit: Int): List<String> {
+        var node = root
+        for (c in prefix) {
+            node = node.child(c) ?: return emptyList()
+        }
+        val result = ArrayList<String>()
+        collect(node, StringBuilder(prefix), result, limit)
+        return result
+    }
+
+    private fun collect(node: Node, builder: StringBuilder, result: MutableList<String>, limit: Int) {
+        if (node.count > 0) {
+            result.add(builder.toString())
+        }
+        for (i in 0 until node.childCount) {
+            if (result.size >= limit) {
+                return
+            }
+            builder.append(node.chars[i])
+            collect(node.children[i]!!, builder, result, limit)
+            builder.setLength(builder.length - 1)
+        }
+    }
+
+    companion object {
+        private val EMPTY_CHARS = CharArray(0)
+        private val EMPTY_NODES = arrayOfNulls<Node>(0)
+    }
+}
@@ -0,0 +1,96 @@
+package com.xxxlin.json.diagnostics
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread
+import com.intellij.openapi.actionSystem.AnAction
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.application.ModalityState
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.fileEditor.FileEditorManager
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.Messages
+import com.intellij.psi.PsiManager
+import com.intellij.util.concurrency.AppExecutorUtil
+import com.xxxlin.json.JsonBundle
+import com.xxxlin.json.index.JsonKeyFilter
+import com.xxxlin.json.resolve.JsonCallSiteFilter
+import com.xxxlin.json.resolve.JsonKeyResolveEngine
+
+/**
+ * 展示插件内部缓存、过滤器等运行状态
+ */
+class JsonExtDiagnosticsAction : AnAction() {
+
+    override fun getActionUpdateThread(): ActionUpdateThread {
+        return ActionUpdateThread.BGT
+    }
+
+    override fun update(e: AnActionEvent) {
+        val project = e.project
+        e.presentation.isEnabled = project != null && !DumbService.isDumb(project)
+    }
+
+    /**
+     * 统计时可能重建过滤器、解析调用，在后台读操作中收集，完成后回到 EDT 展示
+     */
+    override fun actionPerformed(e: AnActionEvent) {
+        val project = e.project ?: return
+        ReadAction.nonBlocking<List<String>> { collect(project) }
+            .inSmartMode(project)
+            .expireWith(project)
+            .finishOnUiThread(ModalityState.defaultModalityState()) { lines ->
+                Messages.showInfoMessage(
+                    project,
+                    lines.joinToString("\n"),
+                    JsonBundle.message("diagnostics.title")
+                )
+            }
+            .submit(AppExecutorUtil.getAppExecutorService())
+    }
+
+    private fun collect(project: Project): List<String> {
+        val result = mutableListOf<String>()
+
+        val filter = JsonKeyFilter.getInstance(project).getStatistics()
+        result.add(
+            JsonBundle.message(
+                "diagnostics.key.filter",
+                filter.keyCount,
+                filter.memoryBytes / 1024,
+                percent(filter.estimatedFalsePositive),
+                percent(filter.observedFalsePositive),
+                filter.rejected
+            )
+        )
+
+        val resolve = JsonKeyResolveEngine.getInstance(project).getStatistics()
+        result.add(
+            JsonBundle.message(
+                "diagnostics.resolve.budget",
+                resolve.resolveCount,
+                resolve.exceededCount,
+                resolve.budgetMillis
+            )
+        )
+
+        val callSiteFilter = JsonCallSiteFilter.current()
+        if (callSiteFilter != null) {
+            val psiManager = PsiManager.getInstance(project)
+            for (file in FileEditorManager.getInstance(project).openFiles) {
+                ProgressManager.checkCanceled()
+                val psiFile = psiManager.findFile(file) ?: continue
+                val (skipped, total) = callSiteFilter.countSkipped(psiFile)
+                if (total > 0) {
+                    result.add(JsonBundle.message("diagnostics.call.site", file.name, skipped, total))
+                }
+            }
+        }
+
+        return result
+    }
+
+    private fun percent(rate: Double): String {
+        return String.format("%.2f%%", rate * 100)
+    }
+}
@@ -0,0 +1,119 @@
+package com.xxxlin.json.hints
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileWithId
+import com.intellij.util.indexing.FileBasedIndex
+import com.xxxlin.json.JsonModificationTracker
+import com.xxxlin.json.editor.JsonFeatureOptions
+import com.xxxlin.json.index.JsonKeyIndex
+import com.xxxlin.json.index.JsonKeyPathIndex
+import com.xxxlin.json.index.JsonPropertyScanner
+import com.xxxlin.json.reference.JsonKeyReference
+import com.xxxlin.json.resolve.JsonKeyMatch
+import com.xxxlin.json.scope.JsonKeySourceScope
+
+/**
+ * 属性值文本的 LRU 缓存，供代码字符串的值提示使用
+ *
+ * 位置来自索引中的偏移，值文本由词法分析器从该偏移读取，不解析 JSON 文件。
+ * 缓存键包含 JSON 修改计数，JSON 变化后旧条目不再命中并逐渐被淘汰
+ */
+@Service(Service.Level.PROJECT)
+class JsonKeyValueCache(private val project: Project) {
+
+    private data class CacheKey(val fileId: Int, val offset: Int, val stamp: Long)
+
+    private class Holder(val limit: Int, val maxLength: Int, val cache: Cache<CacheKey, String>)
+
+    class Statistics(val size: Long, val limit: Int, val hitRate: Double)
+
+    private val tracker = JsonModificationTracker.getInstance(project)
+
+    @Volatile
+    private var holder: Holder? = null
+
+    /**
+     * 完整 key 或多级 key 最后一级对应的值；key 在多个文件中时取路径排序后的第一个文件
+     */
+    fun findValue(match: JsonKeyMatch): String? {
+        val scope = JsonKeySourceScope.getScope(project)
+        var location: Pair<VirtualFile, Int>? = null
+        val processor = FileBasedIndex.ValueProcessor<IntArray> { file, offsets ->
+            val offset = if (match.segment == JsonKeyReference.NO_SEGMENT) offsets.firstOrNull() else offsets.lastOrNull()
+            val current = location
+            if (offset != null && (current == null || file.path < current.first.path)) {
+                location = file to offset
+            }
+            true
+        }
+        if (match.segment == JsonKeyReference.NO_SEGMENT) {
+            FileBasedIndex.getInstance().processValues(JsonKeyIndex.NAME, match.keys[0], null, processor, scope)
+        } else {
+            FileBasedIndex.getInstance()
+                .processValues(JsonKeyPathIndex.NAME, JsonKeyPathIndex.toPath(match.keys), null, processor, scope)
+        }
+        val (file, offset) = location ?: return null
+        return getValue(file, offset)
+    }
+
+    private fun getValue(file: VirtualFile, offset: Int): String? {
+        val fileId = (file as? VirtualFileWithId)?.id ?: return null
+        val holder = current()
+        val value = holder.cache.get(CacheKey(fileId, offset, tracker.modificationCount)) {
+            // Caffeine 不能缓存 null，用空串表示没有值
+            load(file, offset, holder.maxLength) ?: ""
+        }
+        return value.ifEmpty { null }
+    }
+
+    private fun load(file: VirtualFile, offset: Int, maxLength: Int): String? {
+        val text = FileDocumentManager.getInstance().getCachedDocument(file)?.immutableCharSequence
+            ?: LoadTextUtil.loadText(file)
+        if (offset >= text.length) {
+            return null
+        }
+        val value = JsonPropertyScanner.valueTextAt(text, offset) ?: return null
+        return StringUtil.trimMiddle(value.replace('\n', ' '), maxLength)
+    }
+
+    /**
+     * 设置变化时重建缓存
+     */
+    private fun current(): Holder {
+        val options = JsonFeatureOptions.instance
+        val holder = holder
+        if (holder != null &&
+            holder.limit == options.INLAY_VALUE_CACHE_SIZE &&
+            holder.maxLength == options.INLAY_VALUE_MAX_LENGTH
+        ) {
+            return holder
+        }
+        synchronized(this) {
+            val cache = Caffeine.newBuilder()
+                .maximumSize(options.INLAY_VALUE_CACHE_SIZE.toLong())
+                .recordStats()
+                .build<CacheKey, String>()
+            return Holder(options.INLAY_VALUE_CACHE_SIZE, options.INLAY_VALUE_MAX_LENGTH, cache).also {
+                this.holder = it
+            }
+        }
+    }
+
+    fun getStatistics(): Statistics {
+        val holder = current()
+        return Statistics(holder.cache.estimatedSize(), holder.limit, holder.cache.stats().hitRate())
+    }
+
+    companion object {
+        @JvmStatic
+        fun getInstance(project: Project): JsonKeyValueCache = project.service()
+    }
+}
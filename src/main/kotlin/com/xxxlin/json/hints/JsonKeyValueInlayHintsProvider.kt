@@ -0,0 +1,44 @@
+package com.xxxlin.json.hints
+
+import com.intellij.codeInsight.hints.declarative.InlayHintsCollector
+import com.intellij.codeInsight.hints.declarative.InlayHintsProvider
+import com.intellij.codeInsight.hints.declarative.InlayTreeSink
+import com.intellij.codeInsight.hints.declarative.InlineInlayPosition
+import com.intellij.codeInsight.hints.declarative.SharedBypassCollector
+import com.intellij.openapi.editor.Editor
+import com.intellij.openapi.project.DumbService
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.xxxlin.json.editor.JsonFeatureOptions
+import com.xxxlin.json.reference.JsonKeyReference
+import com.xxxlin.json.resolve.JsonKeyLiteral
+
+/**
+ * 在引用 JSON key 的代码字符串后显示属性值
+ *
+ * 只处理整个字符串是完整 key 或多级 key 的情况，值来自 [JsonKeyValueCache]
+ */
+class JsonKeyValueInlayHintsProvider : InlayHintsProvider {
+
+    override fun createCollector(file: PsiFile, editor: Editor): InlayHintsCollector? {
+        if (!JsonFeatureOptions.instance.MATCH_STRING || DumbService.isDumb(file.project)) {
+            return null
+        }
+        return Collector()
+    }
+
+    private class Collector : SharedBypassCollector {
+
+        override fun collectFromElement(element: PsiElement, sink: InlayTreeSink) {
+            val literal = JsonKeyLiteral.of(element) ?: return
+            val match = literal.analyze(false).firstOrNull {
+                val full = it.segment == JsonKeyReference.NO_SEGMENT || it.segment == it.keys.lastIndex
+                full && literal.toHostRanges(it.range).isNotEmpty()
+            } ?: return
+            val value = JsonKeyValueCache.getInstance(element.project).findValue(match) ?: return
+            sink.addPresentation(InlineInlayPosition(element.textRange.endOffset, true), hasBackground = true) {
+                text(value)
+            }
+        }
+    }
+}
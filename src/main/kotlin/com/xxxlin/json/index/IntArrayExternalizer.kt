@@ -0,0 +1,32 @@
+package com.xxxlin.json.index
+
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
+import java.io.DataInput
+import java.io.DataOutput
+
+/**
+ * 递增偏移数组的序列化，按差值写入以减小索引体积
+ */
+object IntArrayExternalizer : DataExternalizer<IntArray> {
+
+    override fun save(out: DataOutput, value: IntArray) {
+        DataInputOutputUtil.writeINT(out, value.size)
+        var prev = 0
+        for (offset in value) {
+            DataInputOutputUtil.writeINT(out, offset - prev)
+            prev = offset
+        }
+    }
+
+    override fun read(input: DataInput): IntArray {
+        val size = DataInputOutputUtil.readINT(input)
+        val result = IntArray(size)
+        var prev = 0
+        for (i in 0 until size) {
+            prev += DataInputOutputUtil.readINT(input)
+            result[i] = prev
+        }
+        return result
+    }
+}
@@ -0,0 +1,165 @@
+package com.xxxlin.json.index
+
+import com.intellij.ide.highlighter.JavaFileType
+import com.intellij.lang.java.lexer.JavaLexer
+import com.intellij.lexer.Lexer
+import com.intellij.openapi.fileTypes.FileType
+import com.intellij.openapi.roots.ProjectFileIndex
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.pom.java.LanguageLevel
+import com.intellij.psi.JavaTokenType
+import com.intellij.util.indexing.DataIndexer
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.indexing.FileBasedIndexExtension
+import com.intellij.util.indexing.FileContent
+import com.intellij.util.indexing.ID
+import com.intellij.util.indexing.IndexedFile
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.EnumeratorIntegerDescriptor
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.KeyDescriptor
+import com.intellij.util.Consumer
+import com.xxxlin.utils.SlotScanner
+import com.xxxlin.utils.contains
+import org.jetbrains.kotlin.idea.KotlinFileType
+import org.jetbrains.kotlin.lexer.KotlinLexer
+import org.jetbrains.kotlin.lexer.KtTokens
+
+/**
+ * Java/Kotlin 字符串索引：可能作为 key 的文本 -> 在该文件中出现的次数
+ *
+ * 与字符串引用的匹配规则一致，记录完整内容、多级 key 的每一级和 {} 槽位。只用词法分析器扫描，不构建 PSI；
+ * 只索引项目内容中的文件，依赖库和 JDK 源码中不会有本项目的 key
+ */
+class JsonCodeLiteralIndex : FileBasedIndexExtension<String, Int>() {
+
+    override fun getName(): ID<String, Int> {
+        return NAME
+    }
+
+    override fun getIndexer(): DataIndexer<String, Int, FileContent> {
+        return DataIndexer { inputData ->
+            val counts = HashMap<String, Int>()
+            val consumer: (String) -> Unit = { literal ->
+                collectKeys(literal) { key -> counts.merge(key, 1, Int::plus) }
+            }
+            if (inputData.fileType == JavaFileType.INSTANCE) {
+                scanJava(inputData.contentAsText, consumer)
+            } else {
+                scanKotlin(inputData.contentAsText, consumer)
+            }
+            counts
+        }
+    }
+
+    override fun getKeyDescriptor(): KeyDescriptor<String> {
+        return EnumeratorStringDescriptor.INSTANCE
+    }
+
+    override fun getValueExternalizer(): DataExternalizer<Int> {
+        return EnumeratorIntegerDescriptor.INSTANCE
+    }
+
+    override fun getVersion(): Int {
+        return 2
+    }
+
+    override fun getInputFilter(): FileBasedIndex.InputFilter {
+        return InputFilter
+    }
+
+    private object InputFilter : FileBasedIndex.ProjectSpecificInputFilter, FileBasedIndex.FileTypeSpecificInputFilter {
+
+        override fun registerFileTypesUsedForIndexing(fileTypeSink: Consumer<in FileType>) {
+            fileTypeSink.consume(JavaFileType.INSTANCE)
+            fileTypeSink.consume(KotlinFileType.INSTANCE)
+        }
+
+        override fun acceptInput(file: IndexedFile): Boolean {
+            if (file.fileType != JavaFileType.INSTANCE && file.fileType != KotlinFileType.INSTANCE) {
+                return false
+            }
+            val project = file.project ?: return false
+            return ProjectFileIndex.getInstance(project).isInContent(file.file)
+        }
+    }
+
+    override fun dependsOnFileContent(): Boolean {
+        return true
+    }
+
+    companion object {
+        @JvmField
+        val NAME: ID<String, Int> = ID.create("com.xxxlin.json.index.JsonCodeLiteralIndex")
+
+        /**
+         * 字符串内容中所有可能引用 key 的文本
+         */
+        fun collectKeys(text: String, consumer: (String) -> Unit) {
+            if (text.isEmpty()) {
+                return
+            }
+            consumer(text)
+            if (text.contains('/', '#')) {
+                text.split("/", "#").forEach { if (it.isNotEmpty()) consumer(it) }
+            }
+            val scanner = SlotScanner.brace()
+            val count = scanner.scan(text)
+            for (i in 0 until count) {
+                consumer(text.substring(scanner.start(i), scanner.end(i)))
+            }
+        }
+
+        private fun scanJava(text: CharSequence, consumer: (String) -> Unit) {
+            val lexer: Lexer = JavaLexer(LanguageLevel.HIGHEST)
+            lexer.start(text)
+            while (lexer.tokenType != null) {
+                if (lexer.tokenType == JavaTokenType.STRING_LITERAL) {
+                    val token = lexer.tokenText
+                    if (token.length >= 2 && token.endsWith("\"")) {
+                        consumer(StringUtil.unescapeStringCharacters(token.substring(1, token.length - 1)))
+                    }
+                }
+                lexer.advance()
+            }
+        }
+
+        /**
+         * 内容为解码转义后的值，与字符串引用取 evaluateToString() 的结果一致；
+         * 含有 `$x` / `${...}` 模板的字符串只能由常量求值得到值，这里跳过
+         */
+        private fun scanKotlin(text: CharSequence, consumer: (String) -> Unit) {
+            val lexer: Lexer = KotlinLexer()
+            lexer.start(text)
+            // 模板表达式中可能嵌套字符串，为 null 表示该字符串含有模板
+            val stack = ArrayList<StringBuilder?>()
+            while (lexer.tokenType != null) {
+                when (lexer.tokenType) {
+                    KtTokens.OPEN_QUOTE -> stack.add(StringBuilder())
+
+                    KtTokens.CLOSING_QUOTE -> {
+                        if (stack.isNotEmpty()) {
+                            stack.removeAt(stack.size - 1)?.let { consumer(it.toString()) }
+                        }
+                    }
+
+                    KtTokens.SHORT_TEMPLATE_ENTRY_START, KtTokens.LONG_TEMPLATE_ENTRY_START -> {
+                        if (stack.isNotEmpty()) {
+                            stack[stack.size - 1] = null
+                        }
+                    }
+
+                    KtTokens.REGULAR_STRING_PART -> stack.lastOrNull()?.append(lexer.tokenSequence)
+
+                    KtTokens.ESCAPE_SEQUENCE -> stack.lastOrNull()?.append(unescapeKotlin(lexer.tokenText))
+                }
+                lexer.advance()
+            }
+        }
+
+        private fun unescapeKotlin(escape: String): String {
+            // StringUtil 不认识 Kotlin 的 \$
+            return if (escape == "\\$") "$" else StringUtil.unescapeStringCharacters(escape)
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.xxxlin.json.index
+
+import kotlin.math.ceil
+import kotlin.math.exp
+import kotlin.math.ln
+import kotlin.math.max
+import kotlin.math.pow
+import kotlin.math.roundToInt
+
+/**
+ * 字符串布隆过滤器：[mightContain] 返回 false 时一定不存在，返回 true 时可能误判
+ *
+ * @param capacity          预期元素数量
+ * @param falsePositiveRate 元素数量达到 [capacity] 时的目标误判率
+ */
+class JsonKeyBloomFilter(val capacity: Int, falsePositiveRate: Double) {
+
+    private val bitCount: Int
+    private val hashCount: Int
+    private val bits: LongArray
+
+    var size: Int = 0
+        private set
+
+    init {
+        val n = max(capacity, 1).toDouble()
+        val m = ceil(-n * ln(falsePositiveRate) / (LN2 * LN2)).toInt()
+        bitCount = max(m, Long.SIZE_BITS)
+        hashCount = max((bitCount / n * LN2).roundToInt(), 1)
+        bits = LongArray((bitCount + Long.SIZE_BITS - 1) / Long.SIZE_BITS)
+    }
+
+    fun put(key: String) {
+        val h1 = key.hashCode()
+        val h2 = mix(h1)
+        for (i in 0 until hashCount) {
+            val index = indexOf(h1 + i * h2)
+            bits[index ushr 6] = bits[index ushr 6] or (1L shl index)
+        }
+        size++
+    }
+
+    fun mightContain(key: String): Boolean {
+        val h1 = key.hashCode()
+        val h2 = mix(h1)
+        for (i in 0 until hashCount) {
+            val index = indexOf(h1 + i * h2)
+            if (bits[index ushr 6] and (1L shl index) == 0L) {
+                return false
+            }
+        }
+        return true
+    }
+
+    /**
+     * 按已置位比例估算当前误判率，包含已删除但仍留在过滤器中的 key 的影响
+     */
+    fun estimatedFalsePositiveRate(): Double {
+        var setBits = 0L
+        for (word in bits) {
+            setBits += java.lang.Long.bitCount(word)
+        }
+        return (setBits.toDouble() / bitCount).pow(hashCount)
+    }
+
+    /**
+     * 按已插入数量计算的理论误判率
+     */
+    fun expectedFalsePositiveRate(): Double {
+        return (1 - exp(-hashCount.toDouble() * size / bitCount)).pow(hashCount)
+    }
+
+    /**
+     * 位数组占用的字节数
+     */
+    fun memoryBytes(): Long {
+        return bits.size.toLong() * java.lang.Long.BYTES
+    }
+
+    private fun indexOf(hash: Int): Int {
+        return (hash and Int.MAX_VALUE) % bitCount
+    }
+
+    private fun mix(hash: Int): Int {
+        // murmur3 fmix32，派生第二个哈希，保证为奇数避免步长退化
+        var h = hash
+        h = h xor (h ushr 16)
+        h *= -0x7a143595
+        h = h xor (h ushr 13)
+        h *= -0x3d4d51cb
+        h = h xor (h ushr 16)
+        return h or 1
+    }
+
+    companion object {
+        private val LN2 = ln(2.0)
+    }
+}
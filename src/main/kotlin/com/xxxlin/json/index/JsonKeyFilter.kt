@@ -0,0 +1,248 @@
+package com.xxxlin.json.index
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootModificationTracker
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.concurrency.AppExecutorUtil
+import com.intellij.util.indexing.FileBasedIndex
+import com.xxxlin.json.JsonLanguageUtil
+import com.xxxlin.json.JsonModificationTracker
+import com.xxxlin.json.editor.JsonKeySourceOptions
+import com.xxxlin.json.scope.JsonKeySourceScope
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 项目内所有 key 和多级 key 路径的成员过滤器
+ *
+ * 绝大多数代码字符串都不是 key，先用布隆过滤器在常数时间内排除，再做真正的索引查询。
+ * JSON 文件变化后只读取修改过的文件在索引中的 key 并补充进现有过滤器；删除的 key 会残留在过滤器中，
+ * 只有容量用尽或估算误判率明显超出目标时才在后台整体重建，重建期间继续使用旧的过滤器。
+ * key 来源设置或项目结构变化后旧的过滤器不再可信，重建完成前不做过滤
+ */
+@Service(Service.Level.PROJECT)
+class JsonKeyFilter(private val project: Project) : Disposable {
+
+    private val lock = Any()
+
+    private val tracker = JsonModificationTracker.getInstance(project)
+
+    @Volatile
+    private var filter: JsonKeyBloomFilter? = null
+
+    /**
+     * 已写入过滤器的文件及写入时的修改戳
+     */
+    private val files = HashMap<VirtualFile, Long>()
+
+    @Volatile
+    private var jsonStamp: Long = -1
+
+    @Volatile
+    private var scopeStamp: Long = -1
+
+    private val rebuilding = AtomicBoolean()
+
+    private val rejected = AtomicLong()
+    private val falsePositives = AtomicLong()
+
+    /**
+     * @return false 表示一定不是 key
+     */
+    fun mightContain(key: String): Boolean {
+        val filter = current() ?: return true
+        val result = filter.mightContain(key)
+        if (!result) {
+            rejected.incrementAndGet()
+        }
+        return result
+    }
+
+    /**
+     * 过滤器放行但索引中没有时调用，用于统计实际误判率
+     */
+    fun reportFalsePositive() {
+        falsePositives.incrementAndGet()
+    }
+
+    /**
+     * @return null 表示过滤器还未建立，不能用来排除
+     */
+    private fun current(): JsonKeyBloomFilter? {
+        val scope = scopeModificationCount()
+        val stamp = tracker.modificationCount
+        val filter = filter
+        if (filter != null && scope == scopeStamp && stamp == jsonStamp) {
+            return filter
+        }
+        if (filter == null || scope != scopeStamp) {
+            synchronized(lock) {
+                if (scope != scopeStamp) {
+                    this.filter = null
+                    files.clear()
+                }
+            }
+            scheduleRebuild()
+            return null
+        }
+        update(filter, stamp)
+        return this.filter
+    }
+
+    /**
+     * 只读取修改戳变化的文件，在锁外读取索引
+     */
+    private fun update(filter: JsonKeyBloomFilter, stamp: Long) {
+        val known = synchronized(lock) { HashMap(files) }
+        val current = JsonLanguageUtil.findAllJsonVirtualFile(project)
+        val changed = HashMap<VirtualFile, Long>()
+        val keys = ArrayList<String>()
+        for (file in current) {
+            val fileStamp = modificationStamp(file)
+            if (known[file] != fileStamp) {
+                changed[file] = fileStamp
+                readKeys(file, keys)
+            }
+        }
+
+        synchronized(lock) {
+            // 期间已被重建替换
+            if (this.filter !== filter) {
+                return
+            }
+            for (key in keys) {
+                if (!filter.mightContain(key)) {
+                    filter.put(key)
+                }
+            }
+            files.putAll(changed)
+            if (files.size > current.size) {
+                files.keys.retainAll(current.toHashSet())
+            }
+            if (stamp > jsonStamp) {
+                jsonStamp = stamp
+            }
+        }
+
+        if (filter.size > filter.capacity || filter.estimatedFalsePositiveRate() > FALSE_POSITIVE_RATE * 2) {
+            scheduleRebuild()
+        }
+    }
+
+    private fun scheduleRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return
+        }
+        ReadAction.nonBlocking<Rebuilt> { rebuild() }
+            .inSmartMode(project)
+            .expireWith(this)
+            .submit(AppExecutorUtil.getAppExecutorService())
+            .onSuccess { rebuilt ->
+                synchronized(lock) {
+                    filter = rebuilt.filter
+                    files.clear()
+                    files.putAll(rebuilt.files)
+                    jsonStamp = rebuilt.jsonStamp
+                    scopeStamp = rebuilt.scopeStamp
+                }
+            }
+            .onProcessed { rebuilding.set(false) }
+    }
+
+    private class Rebuilt(
+        val filter: JsonKeyBloomFilter,
+        val files: Map<VirtualFile, Long>,
+        val jsonStamp: Long,
+        val scopeStamp: Long
+    )
+
+    private fun rebuild(): Rebuilt {
+        // 先记录修改戳再读取索引，期间的修改会在下次查询时作为增量补充
+        val scopeStamp = scopeModificationCount()
+        val jsonStamp = tracker.modificationCount
+        val files = HashMap<VirtualFile, Long>()
+        for (file in JsonLanguageUtil.findAllJsonVirtualFile(project)) {
+            files[file] = modificationStamp(file)
+        }
+
+        val keys = ArrayList<String>()
+        val scope = JsonKeySourceScope.getScope(project)
+        val index = FileBasedIndex.getInstance()
+        index.processAllKeys(JsonKeyIndex.NAME, { ProgressManager.checkCanceled(); keys.add(it) }, scope, null)
+        index.processAllKeys(JsonKeyPathIndex.NAME, { ProgressManager.checkCanceled(); keys.add(it) }, scope, null)
+
+        // 预留一倍容量，避免新增 key 后马上需要重建
+        val filter = JsonKeyBloomFilter(keys.size * 2, FALSE_POSITIVE_RATE)
+        for (key in keys) {
+            filter.put(key)
+        }
+        return Rebuilt(filter, files, jsonStamp, scopeStamp)
+    }
+
+    private fun readKeys(file: VirtualFile, result: MutableList<String>) {
+        val index = FileBasedIndex.getInstance()
+        result.addAll(index.getFileData(JsonKeyIndex.NAME, file, project).keys)
+        result.addAll(index.getFileData(JsonKeyPathIndex.NAME, file, project).keys)
+    }
+
+    private fun modificationStamp(file: VirtualFile): Long {
+        val document = FileDocumentManager.getInstance().getCachedDocument(file)
+        return document?.modificationStamp ?: file.modificationStamp
+    }
+
+    /**
+     * key 来源范围取决于设置和项目结构
+     */
+    private fun scopeModificationCount(): Long {
+        return JsonKeySourceOptions.getInstance(project).modificationTracker.modificationCount +
+                ProjectRootModificationTracker.getInstance(project).modificationCount
+    }
+
+    /**
+     * 过滤器还未建立时各项为 0
+     */
+    fun getStatistics(): Statistics {
+        val filter = current()
+        val rejected = rejected.get()
+        val falsePositives = falsePositives.get()
+        val negatives = rejected + falsePositives
+        return Statistics(
+            filter?.size ?: 0,
+            filter?.memoryBytes() ?: 0,
+            filter?.estimatedFalsePositiveRate() ?: 0.0,
+            if (negatives == 0L) 0.0 else falsePositives.toDouble() / negatives,
+            rejected
+        )
+    }
+
+    /**
+     * @param keyCount               已插入的 key 数量
+     * @param memoryBytes            位数组占用的字节数
+     * @param estimatedFalsePositive 按置位比例估算的误判率
+     * @param observedFalsePositive  实际查询中观察到的误判率
+     * @param rejected               被直接排除的查询次数
+     */
+    data class Statistics(
+        val keyCount: Int,
+        val memoryBytes: Long,
+        val estimatedFalsePositive: Double,
+        val observedFalsePositive: Double,
+        val rejected: Long
+    )
+
+    override fun dispose() {
+    }
+
+    companion object {
+        private const val FALSE_POSITIVE_RATE = 0.01
+
+        @JvmStatic
+        fun getInstance(project: Project): JsonKeyFilter = project.service()
+    }
+}
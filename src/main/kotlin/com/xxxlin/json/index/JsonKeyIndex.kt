@@ -0,0 +1,60 @@
+package com.xxxlin.json.index
+
+import com.intellij.util.indexing.DataIndexer
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.indexing.FileBasedIndexExtension
+import com.intellij.util.indexing.FileContent
+import com.intellij.util.indexing.ID
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.KeyDescriptor
+import com.xxxlin.json.JsonFileType
+import it.unimi.dsi.fastutil.ints.IntArrayList
+
+/**
+ * 属性名索引：属性名 -> 该文件中所有同名属性的偏移
+ *
+ * 文件 id 由 [FileBasedIndex] 自身维护，值只保存文件内偏移
+ */
+class JsonKeyIndex : FileBasedIndexExtension<String, IntArray>() {
+
+    override fun getName(): ID<String, IntArray> {
+        return NAME
+    }
+
+    override fun getIndexer(): DataIndexer<String, IntArray, FileContent> {
+        return DataIndexer { inputData ->
+            val offsets = HashMap<String, IntArrayList>()
+            JsonPropertyScanner.scan(inputData.contentAsText) { property ->
+                offsets.getOrPut(property.name) { IntArrayList(1) }.add(property.offset)
+            }
+            offsets.mapValues { it.value.toIntArray() }
+        }
+    }
+
+    override fun getKeyDescriptor(): KeyDescriptor<String> {
+        return EnumeratorStringDescriptor.INSTANCE
+    }
+
+    override fun getValueExternalizer(): DataExternalizer<IntArray> {
+        return IntArrayExternalizer
+    }
+
+    override fun getVersion(): Int {
+        return 1
+    }
+
+    override fun getInputFilter(): FileBasedIndex.InputFilter {
+        return DefaultFileTypeSpecificInputFilter(JsonFileType.INSTANCE)
+    }
+
+    override fun dependsOnFileContent(): Boolean {
+        return true
+    }
+
+    companion object {
+        @JvmField
+        val NAME: ID<String, IntArray> = ID.create("com.xxxlin.json.index.JsonKeyIndex")
+    }
+}
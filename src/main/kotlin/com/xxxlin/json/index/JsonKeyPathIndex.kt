@@ -0,0 +1,72 @@
+package com.xxxlin.json.index
+
+import com.intellij.util.indexing.DataIndexer
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.indexing.FileBasedIndexExtension
+import com.intellij.util.indexing.FileContent
+import com.intellij.util.indexing.ID
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.KeyDescriptor
+import com.xxxlin.json.JsonFileType
+
+/**
+ * 多级 key 索引：以 '/' 连接的完整路径 -> 路径上每一级属性的偏移
+ *
+ * 只收录从文件第一个顶层对象逐级经由对象值可到达、且路径上的名称都不含 '/' 的属性，与多级 key 的匹配规则一致；
+ * 同一文件中路径重复时只保留第一个
+ */
+class JsonKeyPathIndex : FileBasedIndexExtension<String, IntArray>() {
+
+    override fun getName(): ID<String, IntArray> {
+        return NAME
+    }
+
+    override fun getIndexer(): DataIndexer<String, IntArray, FileContent> {
+        return DataIndexer { inputData ->
+            val result = HashMap<String, IntArray>()
+            JsonPropertyScanner.scan(inputData.contentAsText) { property ->
+                if (property.inPath) {
+                    result.putIfAbsent(property.path(), property.pathOffsets())
+                }
+            }
+            result
+        }
+    }
+
+    override fun getKeyDescriptor(): KeyDescriptor<String> {
+        return EnumeratorStringDescriptor.INSTANCE
+    }
+
+    override fun getValueExternalizer(): DataExternalizer<IntArray> {
+        return IntArrayExternalizer
+    }
+
+    override fun getVersion(): Int {
+        return 2
+    }
+
+    override fun getInputFilter(): FileBasedIndex.InputFilter {
+        return DefaultFileTypeSpecificInputFilter(JsonFileType.INSTANCE)
+    }
+
+    override fun dependsOnFileContent(): Boolean {
+        return true
+    }
+
+    companion object {
+        @JvmField
+        val NAME: ID<String, IntArray> = ID.create("com.xxxlin.json.index.JsonKeyPathIndex")
+
+        const val SEPARATOR: Char = '/'
+
+        /**
+         * 多级 key 统一转换为索引中的路径格式
+         */
+        @JvmStatic
+        fun toPath(keys: List<String>): String {
+            return keys.joinToString(SEPARATOR.toString())
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.xxxlin.json.index
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.diagnostic.logger
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.psi.PsiManager
+import com.intellij.util.concurrency.AppExecutorUtil
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.io.DataInputOutputUtil
+import com.intellij.util.io.IOUtil
+import com.xxxlin.json.JsonLanguageUtil
+import com.xxxlin.json.JsonModificationTracker
+import com.xxxlin.json.psi.JsonFile
+import com.xxxlin.json.psi.JsonProperty
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInput
+import java.io.DataInputStream
+import java.io.DataOutput
+import java.io.DataOutputStream
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+/**
+ * 保存在磁盘上的 key 快照，在索引不可用（启动、切换分支后的 dumb mode）时代替索引
+ *
+ * 内容与 [JsonKeyIndex]、[JsonKeyPathIndex] 相同：每个文件记录 key -> 偏移。
+ * 启动时读取，索引就绪后只重新读取修改过的文件；索引可用期间 JSON 文件变化后定期在后台同步并写回
+ */
+@Service(Service.Level.PROJECT)
+class JsonKeySnapshot(private val project: Project) : Disposable {
+
+    /**
+     * @param timeStamp 读取索引时文件在磁盘上的修改时间，跨 IDE 重启保持不变
+     */
+    private class FileEntry(
+        val url: String,
+        val timeStamp: Long,
+        val names: Map<String, IntArray>,
+        val paths: Map<String, IntArray>
+    )
+
+    private class Location(val url: String, val offsets: IntArray)
+
+    @Volatile
+    private var files: Map<String, FileEntry> = emptyMap()
+
+    @Volatile
+    private var names: Map<String, List<Location>> = emptyMap()
+
+    @Volatile
+    private var paths: Map<String, List<Location>> = emptyMap()
+
+    private val tracker = JsonModificationTracker.getInstance(project)
+
+    /**
+     * 最近一次同步开始时的 JSON 修改计数
+     */
+    @Volatile
+    private var reconciledStamp: Long = -1
+
+    private var refreshTask: ScheduledFuture<*>? = null
+
+    private val snapshotFile: Path
+        get() = PathManager.getSystemDir().resolve("json-ext").resolve("${project.locationHash}.keys")
+
+    fun containsKey(key: String): Boolean {
+        return key in names
+    }
+
+    fun containsPath(path: String): Boolean {
+        return path in paths
+    }
+
+    /**
+     * 按快照中的偏移定位属性，只解析文件不使用索引
+     *
+     * 文件可能在快照之后被修改（如切换分支），偏移处的属性名不一致时丢弃
+     */
+    fun findKey(key: String): List<JsonProperty> {
+        val result = mutableListOf<JsonProperty>()
+        for (location in names[key].orEmpty()) {
+            val jsonFile = findFile(location.url) ?: continue
+            location.offsets.mapNotNullTo(result) { offset ->
+                JsonLanguageUtil.findPropertyAt(jsonFile, offset)?.takeIf { it.name == key }
+            }
+        }
+        return result
+    }
+
+    /**
+     * 每个文件一组，组内依次是每一级属性
+     */
+    fun findKeys(keys: List<String>): List<List<JsonProperty>> {
+        val result = mutableListOf<List<JsonProperty>>()
+        for (location in paths[JsonKeyPathIndex.toPath(keys)].orEmpty()) {
+            val jsonFile = findFile(location.url) ?: continue
+            val list = location.offsets.mapNotNull { JsonLanguageUtil.findPropertyAt(jsonFile, it) }
+            if (list.size == keys.size && list.indices.all { list[it].name == keys[it] }) {
+                result.add(list)
+            }
+        }
+        return result
+    }
+
+    private fun findFile(url: String): JsonFile? {
+        val virtualFile = VirtualFileManager.getInstance().findFileByUrl(url) ?: return null
+        return PsiManager.getInstance(project).findFile(virtualFile) as? JsonFile
+    }
+
+    /**
+     * 启动时从磁盘读取
+     */
+    fun load() {
+        val path = snapshotFile
+        if (!Files.isRegularFile(path)) {
+            return
+        }
+        try {
+            DataInputStream(BufferedInputStream(Files.newInputStream(path))).use { input ->
+                if (DataInputOutputUtil.readINT(input) != VERSION) {
+                    return
+                }
+                val count = DataInputOutputUtil.readINT(input)
+                val result = HashMap<String, FileEntry>(count)
+                repeat(count) {
+                    val entry = readEntry(input)
+                    result[entry.url] = entry
+                }
+                update(result)
+            }
+        } catch (e: IOException) {
+            LOG.warn("Cannot read key snapshot $path", e)
+        }
+    }
+
+    /**
+     * 索引就绪后在后台与索引同步，只重新读取修改时间变化的文件
+     */
+    fun reconcile() {
+        ReadAction.nonBlocking<Pair<Long, Map<String, FileEntry>>> { tracker.modificationCount to collect() }
+            .inSmartMode(project)
+            .expireWith(this)
+            .coalesceBy(this)
+            .submit(AppExecutorUtil.getAppExecutorService())
+            .onSuccess { (stamp, files) ->
+                update(files)
+                reconciledStamp = stamp
+                AppExecutorUtil.getAppExecutorService().execute { save() }
+            }
+    }
+
+    /**
+     * 定期检查 JSON 修改计数，变化时同步，连续编辑只触发一次
+     */
+    fun startRefresh() {
+        refreshTask = AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay({
+            if (!DumbService.isDumb(project) && reconciledStamp != -1L && tracker.modificationCount != reconciledStamp) {
+                reconcile()
+            }
+        }, REFRESH_DELAY_SECONDS, REFRESH_DELAY_SECONDS, TimeUnit.SECONDS)
+    }
+
+    private fun collect(): Map<String, FileEntry> {
+        val index = FileBasedIndex.getInstance()
+        val old = files
+        val result = HashMap<String, FileEntry>()
+        for (file in JsonLanguageUtil.findAllJsonVirtualFile(project)) {
+            ProgressManager.checkCanceled()
+            val entry = old[file.url]
+            if (entry != null && entry.timeStamp == file.timeStamp && !isModifiedInMemory(file)) {
+                result[file.url] = entry
+                continue
+            }
+            result[file.url] = FileEntry(
+                file.url,
+                file.timeStamp,
+                index.getFileData(JsonKeyIndex.NAME, file, project),
+                index.getFileData(JsonKeyPathIndex.NAME, file, project)
+            )
+        }
+        return result
+    }
+
+    private fun isModifiedInMemory(file: VirtualFile): Boolean {
+        return FileDocumentManager.getInstance().isFileModified(file)
+    }
+
+    private fun update(files: Map<String, FileEntry>) {
+        val names = HashMap<String, MutableList<Location>>()
+        val paths = HashMap<String, MutableList<Location>>()
+        for (entry in files.values) {
+            entry.names.forEach { (key, offsets) ->
+                names.getOrPut(key) { ArrayList(1) }.add(Location(entry.url, offsets))
+            }
+            entry.paths.forEach { (path, offsets) ->
+                paths.getOrPut(path) { ArrayList(1) }.add(Location(entry.url, offsets))
+            }
+        }
+        this.files = files
+        this.names = names
+        this.paths = paths
+    }
+
+    @Synchronized
+    private fun save() {
+        val path = snapshotFile
+        val files = files
+        try {
+            Files.createDirectories(path.parent)
+            DataOutputStream(BufferedOutputStream(Files.newOutputStream(path))).use { out ->
+                DataInputOutputUtil.writeINT(out, VERSION)
+                DataInputOutputUtil.writeINT(out, files.size)
+                files.values.forEach { writeEntry(out, it) }
+            }
+        } catch (e: IOException) {
+            LOG.warn("Cannot write key snapshot $path", e)
+        }
+    }
+
+    private fun writeEntry(out: DataOutput, entry: FileEntry) {
+        IOUtil.writeUTF(out, entry.url)
+        DataInputOutputUtil.writeLONG(out, entry.timeStamp)
+        writeMap(out, entry.names)
+        writeMap(out, entry.paths)
+    }
+
+    private fun readEntry(input: DataInput): FileEntry {
+        val url = IOUtil.readUTF(input)
+        val timeStamp = DataInputOutputUtil.readLONG(input)
+        return FileEntry(url, timeStamp, readMap(input), readMap(input))
+    }
+
+    private fun writeMap(out: DataOutput, map: Map<String, IntArray>) {
+        DataInputOutputUtil.writeINT(out, map.size)
+        for ((key, offsets) in map) {
+            IOUtil.writeUTF(out, key)
+            IntArrayExternalizer.save(out, offsets)
+        }
+    }
+
+    private fun readMap(input: DataInput): Map<String, IntArray> {
+        val size = DataInputOutputUtil.readINT(input)
+        val result = HashMap<String, IntArray>(size)
+        repeat(size) {
+            result[IOUtil.readUTF(input)] = IntArrayExternalizer.read(input)
+        }
+        return result
+    }
+
+    override fun dispose() {
+        refreshTask?.cancel(false)
+        if (files.isNotEmpty()) {
+            save()
+        }
+    }
+
+    companion object {
+        private val LOG = logger<JsonKeySnapshot>()
+
+        private const val VERSION = 1
+
+        private const val REFRESH_DELAY_SECONDS = 10L
+
+        @JvmStatic
+        fun getInstance(project: Project): JsonKeySnapshot = project.service()
+
+        /**
+         * 索引不可用时使用快照
+         */
+        @JvmStatic
+        fun isActive(project: Project): Boolean = DumbService.isDumb(project)
+    }
+}
@@ -0,0 +1,26 @@
+package com.xxxlin.json.index
+
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.startup.StartupActivity
+
+/**
+ * 启动时读取 key 快照，每次退出 dumb mode 后与索引同步，索引可用期间定期同步 JSON 文件的修改
+ */
+class JsonKeySnapshotStartupActivity : StartupActivity.DumbAware {
+
+    override fun runActivity(project: Project) {
+        val snapshot = JsonKeySnapshot.getInstance(project)
+        snapshot.load()
+        project.messageBus.connect(snapshot).subscribe(DumbService.DUMB_MODE, object : DumbService.DumbModeListener {
+            override fun exitDumbMode() {
+                snapshot.reconcile()
+            }
+        })
+        // 启动时已经索引完成则不会再收到 exitDumbMode
+        if (!DumbService.isDumb(project)) {
+            snapshot.reconcile()
+        }
+        snapshot.startRefresh()
+    }
+}
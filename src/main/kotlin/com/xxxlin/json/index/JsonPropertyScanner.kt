@@ -0,0 +1,217 @@
+package com.xxxlin.json.index
+
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.psi.TokenType
+import com.intellij.psi.tree.IElementType
+import com.intellij.psi.tree.TokenSet
+import com.xxxlin.json.JsonElementTypes
+import com.xxxlin.json.JsonLexer
+import com.xxxlin.json.JsonTokenSets
+import com.xxxlin.json.psi.JsonPsiUtil
+
+/**
+ * 只用 json-ext 词法分析器扫描属性名，不构建 AST/PSI
+ */
+object JsonPropertyScanner {
+
+    /**
+     * 可以作为属性名的 token，和 json.bnf 中 property_name 保持一致
+     */
+    private val NAME_TOKENS: TokenSet = TokenSet.create(
+        JsonElementTypes.DOUBLE_QUOTED_STRING,
+        JsonElementTypes.SINGLE_QUOTED_STRING,
+        JsonElementTypes.IDENTIFIER,
+        JsonElementTypes.NUMBER,
+        JsonElementTypes.TRUE,
+        JsonElementTypes.FALSE,
+        JsonElementTypes.NULL
+    )
+
+    /**
+     * 扫描到的属性
+     *
+     * @param name   属性名（已去引号、反转义）
+     * @param offset 属性在文件中的起始偏移，即属性名 token 的起始位置
+     * @param parent 所在对象所属的属性，顶层属性为 null
+     * @param inPath 是否能从文件第一个顶层对象逐级经由对象值到达，只有这类属性参与多级 key 匹配
+     */
+    class Property(
+        val name: String,
+        val offset: Int,
+        val parent: Property?,
+        val inPath: Boolean
+    ) {
+        val depth: Int = if (parent == null) 1 else parent.depth + 1
+
+        /**
+         * 以 '/' 连接的完整路径
+         */
+        fun path(): String {
+            if (parent == null) {
+                return name
+            }
+            return parent.path() + JsonKeyPathIndex.SEPARATOR + name
+        }
+
+        /**
+         * 路径上每一级属性的偏移，从顶层开始
+         */
+        fun pathOffsets(): IntArray {
+            val result = IntArray(depth)
+            var property: Property? = this
+            for (i in result.indices.reversed()) {
+                result[i] = property!!.offset
+                property = property.parent
+            }
+            return result
+        }
+    }
+
+    fun interface Visitor {
+        fun visitProperty(property: Property)
+    }
+
+    /**
+     * 扫描中的容器
+     *
+     * @param owner 以该对象为值的属性
+     */
+    private class Container(val isObject: Boolean, val owner: Property?, val inPath: Boolean)
+
+    fun scan(text: CharSequence, visitor: Visitor) {
+        val lexer = JsonLexer()
+        lexer.start(text)
+
+        val containers = ArrayList<Container>()
+        var rootSeen = false
+        var expectName = false
+        var nameType: IElementType? = null
+        var nameStart = -1
+        var nameEnd = -1
+        // 刚读完冒号，下一个 token 是该属性的值
+        var valueOwner: Property? = null
+
+        while (true) {
+            val type = lexer.tokenType ?: break
+            if (type == TokenType.WHITE_SPACE || JsonTokenSets.JSON_COMMENTARIES.contains(type)) {
+                lexer.advance()
+                continue
+            }
+
+            val owner = valueOwner
+            valueOwner = null
+            when {
+                type == JsonElementTypes.COLON && nameType != null -> {
+                    val container = containers.lastOrNull()
+                    val name = nameOf(text, nameType, nameStart, nameEnd)
+                    // 名称中含有路径分隔符时与多级路径无法区分，该属性及其子属性都不参与多级 key
+                    val inPath = container != null && container.inPath && JsonKeyPathIndex.SEPARATOR !in name
+                    val property = Property(
+                        name,
+                        nameStart,
+                        container?.owner,
+                        inPath
+                    )
+                    visitor.visitProperty(property)
+                    valueOwner = property
+                    nameType = null
+                }
+
+                expectName && NAME_TOKENS.contains(type) -> {
+                    nameType = type
+                    nameStart = lexer.tokenStart
+                    nameEnd = lexer.tokenEnd
+                    expectName = false
+                }
+
+                else -> {
+                    nameType = null
+                    when (type) {
+                        JsonElementTypes.L_CURLY -> {
+                            val inPath = if (containers.isEmpty()) {
+                                !rootSeen
+                            } else {
+                                owner != null && owner.inPath
+                            }
+                            if (containers.isEmpty()) {
+                                rootSeen = true
+                            }
+                            containers.add(Container(true, owner, inPath))
+                            expectName = true
+                        }
+
+                        JsonElementTypes.L_BRACKET -> {
+                            containers.add(Container(false, null, false))
+                            expectName = false
+                        }
+
+                        JsonElementTypes.R_CURLY, JsonElementTypes.R_BRACKET -> {
+                            if (containers.isNotEmpty()) {
+                                containers.removeAt(containers.lastIndex)
+                            }
+                            expectName = false
+                        }
+
+                        JsonElementTypes.COMMA -> {
+                            expectName = containers.lastOrNull()?.isObject == true
+                        }
+
+                        else -> {
+                            expectName = false
+                        }
+                    }
+                }
+            }
+            lexer.advance()
+        }
+    }
+
+    /**
+     * 读取 offset 处属性的值文本，对象和数组只给出括号
+     *
+     * @param offset 属性名 token 的起始偏移，即索引中记录的偏移
+     * @return 不是属性时返回 null
+     */
+    fun valueTextAt(text: CharSequence, offset: Int): String? {
+        val lexer = JsonLexer()
+        lexer.start(text, offset, text.length, 0)
+        var colonSeen = false
+        var nameSeen = false
+        while (true) {
+            val type = lexer.tokenType ?: return null
+            if (type == TokenType.WHITE_SPACE || JsonTokenSets.JSON_COMMENTARIES.contains(type)) {
+                lexer.advance()
+                continue
+            }
+            when {
+                !nameSeen -> {
+                    if (!NAME_TOKENS.contains(type)) {
+                        return null
+                    }
+                    nameSeen = true
+                }
+
+                !colonSeen -> {
+                    if (type != JsonElementTypes.COLON) {
+                        return null
+                    }
+                    colonSeen = true
+                }
+
+                type == JsonElementTypes.L_CURLY -> return "{…}"
+                type == JsonElementTypes.L_BRACKET -> return "[…]"
+                else -> return nameOf(text, type, lexer.tokenStart, lexer.tokenEnd)
+            }
+            lexer.advance()
+        }
+    }
+
+    private fun nameOf(text: CharSequence, type: IElementType, start: Int, end: Int): String {
+        val tokenText = text.subSequence(start, end).toString()
+        if (type != JsonElementTypes.DOUBLE_QUOTED_STRING && type != JsonElementTypes.SINGLE_QUOTED_STRING) {
+            return tokenText
+        }
+        val name = JsonPsiUtil.stripQuotes(tokenText)
+        return if (name.indexOf('\\') >= 0) StringUtil.unescapeStringCharacters(name) else name
+    }
+}
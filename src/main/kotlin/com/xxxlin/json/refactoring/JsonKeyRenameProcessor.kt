@@ -0,0 +1,126 @@
+package com.xxxlin.json.refactoring
+
+import com.intellij.ide.highlighter.JavaFileType
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.ElementManipulators
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiManager
+import com.intellij.psi.PsiNamedElement
+import com.intellij.psi.PsiReference
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.search.SearchScope
+import com.intellij.refactoring.listeners.RefactoringElementListener
+import com.intellij.refactoring.rename.RenamePsiElementProcessor
+import com.intellij.usageView.UsageInfo
+import com.intellij.util.indexing.FileBasedIndex
+import com.xxxlin.json.editor.JsonFeatureOptions
+import com.xxxlin.json.findUsages.JsonKeyReferencesSearcher
+import com.xxxlin.json.index.JsonCodeLiteralIndex
+import com.xxxlin.json.psi.JsonProperty
+import com.xxxlin.json.reference.JsonKeyReference
+import org.jetbrains.kotlin.idea.KotlinFileType
+
+/**
+ * 重命名 JSON 属性时同步修改 Java/Kotlin 字符串中的完整 key、多级 key 的某一级和 {} 槽位
+ *
+ * 查找时由 [JsonCodeLiteralIndex] 给出含有该 key 的代码文件，只在这些文件中按文本定位引用；
+ * 修改时同一字符串中的多处引用一起处理
+ */
+class JsonKeyRenameProcessor : RenamePsiElementProcessor() {
+
+    override fun canProcessElement(element: PsiElement): Boolean {
+        return element is JsonProperty
+    }
+
+    override fun findReferences(
+        element: PsiElement,
+        searchScope: SearchScope,
+        searchInCommentsAndStrings: Boolean
+    ): Collection<PsiReference> {
+        val property = element as JsonProperty
+        if (!JsonFeatureOptions.instance.MATCH_STRING || searchScope !is GlobalSearchScope) {
+            return super.findReferences(element, searchScope, searchInCommentsAndStrings)
+        }
+
+        val codeScope = GlobalSearchScope.getScopeRestrictedByFileTypes(
+            searchScope, JavaFileType.INSTANCE, KotlinFileType.INSTANCE
+        )
+        // 代码文件由索引处理，其它文件仍走通用搜索
+        val result = ArrayList(
+            super.findReferences(
+                element,
+                searchScope.intersectWith(GlobalSearchScope.notScope(codeScope)),
+                searchInCommentsAndStrings
+            )
+        )
+        result.addAll(findCodeReferences(property, codeScope))
+        return result
+    }
+
+    private fun findCodeReferences(property: JsonProperty, scope: GlobalSearchScope): List<JsonKeyReference> {
+        val name = property.name
+        if (name.isEmpty()) {
+            return emptyList()
+        }
+        val result = mutableListOf<JsonKeyReference>()
+        val psiManager = PsiManager.getInstance(property.project)
+        val files = FileBasedIndex.getInstance().getContainingFiles(JsonCodeLiteralIndex.NAME, name, scope)
+        for (virtualFile in files) {
+            ProgressManager.checkCanceled()
+            val file = psiManager.findFile(virtualFile) ?: continue
+            val text = file.viewProvider.contents
+            var offset = text.indexOf(name, 0)
+            while (offset >= 0) {
+                val leaf = file.findElementAt(offset)
+                if (leaf != null) {
+                    result.addAll(JsonKeyReferencesSearcher.findReferences(leaf, offset, property))
+                }
+                offset = text.indexOf(name, offset + name.length)
+            }
+        }
+        return result
+    }
+
+    override fun renameElement(
+        element: PsiElement,
+        newName: String,
+        usages: Array<out UsageInfo>,
+        listener: RefactoringElementListener?
+    ) {
+        val literalUsages = LinkedHashMap<PsiElement, MutableList<TextRange>>()
+        for (usage in usages) {
+            val reference = usage.reference
+            if (reference is JsonKeyReference) {
+                // 常量拼接得到的引用只覆盖 key 的一部分，不改写
+                if (reference.rangeInElement.substring(reference.element.text) != reference.keyName) {
+                    continue
+                }
+                literalUsages.getOrPut(reference.element) { mutableListOf() }.add(reference.rangeInElement)
+            } else {
+                reference?.handleElementRename(newName)
+            }
+        }
+
+        for ((literal, ranges) in literalUsages) {
+            ProgressManager.checkCanceled()
+            renameInLiteral(literal, ranges, newName)
+        }
+
+        (element as PsiNamedElement).setName(newName)
+        listener?.elementRenamed(element)
+    }
+
+    /**
+     * 从后往前逐个替换，前面的范围不受影响；新名称交给字符串的 manipulator 转义，范围之间的原始文本保持不变
+     */
+    private fun renameInLiteral(literal: PsiElement, ranges: List<TextRange>, newName: String) {
+        var current = literal
+        for (range in ranges.distinct().sortedByDescending { it.startOffset }) {
+            if (!current.isValid) {
+                return
+            }
+            current = ElementManipulators.handleContentChange(current, range, newName) ?: return
+        }
+    }
+}
@@ -1,23 +1,94 @@
 package com.xxxlin.json.reference
 
-import com.xxxlin.json.psi.JsonProperty
 import com.intellij.openapi.util.TextRange
 import com.intellij.psi.PsiElement
-import com.intellij.psi.PsiReferenceBase
+import com.intellij.psi.PsiElementResolveResult
+import com.intellij.psi.PsiPolyVariantReferenceBase
+import com.intellij.psi.ResolveResult
+import com.intellij.psi.impl.source.resolve.ResolveCache
+import com.xxxlin.json.psi.JsonProperty
+import com.xxxlin.json.resolve.JsonKeyResolveEngine
 
 /**
  * 提供或查找 JSON 规则引用
+ *
+ * 创建时只记录范围和 key 文本，真正的查找在 [multiResolve] 中按需进行，完整结果由 [ResolveCache] 缓存
+ *
+ * @param keys    单个 key 时只有一个元素；多级 key 时为每一级 key
+ * @param segment 多级 key 中该引用对应的层级，单个 key 时为 [NO_SEGMENT]
  */
-class JsonKeyReference(
+class JsonKeyReference private constructor(
     element: PsiElement,
     textRange: TextRange,
-    private val jsonProperty: JsonProperty
-) : PsiReferenceBase<PsiElement>(
+    private val keys: List<String>,
+    private val segment: Int
+) : PsiPolyVariantReferenceBase<PsiElement>(
     element, textRange
 ) {
 
-    override fun resolve(): PsiElement {
-        return jsonProperty
+    /**
+     * 引用指向的属性名
+     */
+    val keyName: String
+        get() = if (segment == NO_SEGMENT) keys[0] else keys[segment]
+
+    /**
+     * 超出解析时间预算时只返回部分结果且不缓存，下次调用会重新解析
+     */
+    override fun multiResolve(incompleteCode: Boolean): Array<ResolveResult> {
+        val cache = ResolveCache.getInstance(element.project)
+        cache.getCachedResults(this, element.isPhysical, incompleteCode, true)?.let { return it }
+        val result = doResolve()
+        val results = PsiElementResolveResult.createResults(result.items)
+        if (result.incomplete) {
+            return results
+        }
+        return cache.resolveWithCaching(this, { _, _ -> results }, false, incompleteCode)
+    }
+
+    private fun doResolve(): JsonKeyResolveEngine.Result<JsonProperty> {
+        val engine = JsonKeyResolveEngine.getInstance(element.project)
+        if (segment == NO_SEGMENT) {
+            return engine.findKey(keys[0])
+        }
+        val result = engine.findKeys(keys)
+        return JsonKeyResolveEngine.Result(result.items.map { it[segment] }, result.incomplete)
+    }
+
+    override fun handleElementRename(newElementName: String): PsiElement {
+        // 常量拼接得到的引用只覆盖 key 的一部分，无法直接改写
+        if (rangeInElement.substring(element.text) != keyName) {
+            return element
+        }
+        return super.handleElementRename(newElementName)
     }
 
-}
\ No newline at end of file
+    override fun isReferenceTo(element: PsiElement): Boolean {
+        // 名字不同时不必解析
+        return element is JsonProperty && element.name == keyName && super.isReferenceTo(element)
+    }
+
+    override fun getVariants(): Array<Any> {
+        return emptyArray()
+    }
+
+    companion object {
+        const val NO_SEGMENT: Int = -1
+
+        /**
+         * 完整文本作为单个 key
+         */
+        @JvmStatic
+        fun forKey(element: PsiElement, textRange: TextRange, key: String): JsonKeyReference {
+            return JsonKeyReference(element, textRange, listOf(key), NO_SEGMENT)
+        }
+
+        /**
+         * 多级 key 中的某一级
+         */
+        @JvmStatic
+        fun forSegment(element: PsiElement, textRange: TextRange, keys: List<String>, segment: Int): JsonKeyReference {
+            return JsonKeyReference(element, textRange, keys, segment)
+        }
+    }
+}
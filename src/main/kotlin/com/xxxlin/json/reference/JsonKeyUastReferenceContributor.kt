@@ -0,0 +1,42 @@
+package com.xxxlin.json.reference
+
+import com.intellij.openapi.project.DumbAware
+import com.intellij.patterns.uast.injectionHostUExpression
+import com.intellij.psi.PsiLanguageInjectionHost
+import com.intellij.psi.PsiReference
+import com.intellij.psi.PsiReferenceContributor
+import com.intellij.psi.PsiReferenceRegistrar
+import com.intellij.psi.UastInjectionHostReferenceProvider
+import com.intellij.psi.registerUastReferenceProvider
+import com.intellij.util.ProcessingContext
+import com.xxxlin.json.editor.JsonFeatureOptions
+import com.xxxlin.json.resolve.JsonKeyLiteral
+import org.jetbrains.uast.UExpression
+
+/**
+ * 代码字符串引用 JSON key 规则，通过 UAST 支持所有 JVM 语言
+ */
+class JsonKeyUastReferenceContributor : PsiReferenceContributor() {
+
+    override fun registerReferenceProviders(registrar: PsiReferenceRegistrar) {
+        registrar.registerUastReferenceProvider(injectionHostUExpression(), KeyReferenceProvider())
+    }
+
+    private class KeyReferenceProvider : UastInjectionHostReferenceProvider(), DumbAware {
+
+        override fun getReferencesForInjectionHost(
+            uExpression: UExpression,
+            host: PsiLanguageInjectionHost,
+            context: ProcessingContext
+        ): Array<PsiReference> {
+            if (!JsonFeatureOptions.instance.MATCH_STRING) {
+                return PsiReference.EMPTY_ARRAY
+            }
+
+            val literal = JsonKeyLiteral.of(host) ?: return PsiReference.EMPTY_ARRAY
+            return literal.analyze(true)
+                .flatMap { match -> literal.toHostRanges(match.range).map { match.createReference(host, it) } }
+                .toTypedArray()
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.xxxlin.json.resolve
+
+import com.intellij.openapi.project.DumbService
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiLanguageInjectionHost
+import com.intellij.psi.PsiMethod
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor
+import com.intellij.psi.util.TypeConversionUtil
+import com.xxxlin.json.editor.JsonFeatureOptions
+import org.jetbrains.uast.UAnnotation
+import org.jetbrains.uast.UCallExpression
+import org.jetbrains.uast.UElement
+import org.jetbrains.uast.UExpression
+import org.jetbrains.uast.UInjectionHost
+import org.jetbrains.uast.UNamedExpression
+import org.jetbrains.uast.UParenthesizedExpression
+import org.jetbrains.uast.UPolyadicExpression
+import org.jetbrains.uast.getParameterForArgument
+import org.jetbrains.uast.toUElement
+
+/**
+ * 只把配置的调用位置上的字符串当作 key，由 [JsonFeatureOptions.CALL_SITE_PATTERNS] 编译而来
+ *
+ * 规则写法：
+ * - `I18n.t`：I18n（简单名或全限定名）的 t 方法所有重载的参数，`*.t` 或 `t` 表示任意类
+ * - `I18n.t(String, Object...)`：只匹配参数类型相同的重载，类型写简单名或全限定名；索引不可用时只比较方法名
+ * - `@JsonKey`：带该注解的参数，或该注解的属性值
+ */
+class JsonCallSiteFilter private constructor(
+    private val methods: List<MethodSite>,
+    private val annotations: List<String>
+) {
+
+    /**
+     * @param className      为 null 时匹配任意类
+     * @param parameterTypes 为 null 时匹配所有重载
+     */
+    private class MethodSite(val className: String?, val methodName: String, val parameterTypes: List<String>?)
+
+    /**
+     * @param expression 字符串对应的 UAST 表达式
+     */
+    fun accepts(expression: UExpression): Boolean {
+        // 跳过拼接和括号，找到作为实参的整个表达式
+        var argument: UElement = expression
+        var parent = argument.uastParent
+        while (parent is UPolyadicExpression || parent is UParenthesizedExpression) {
+            argument = parent
+            parent = parent.uastParent
+        }
+        if (parent is UNamedExpression) {
+            parent = parent.uastParent
+        }
+        return when (parent) {
+            is UAnnotation -> matchesName(parent.qualifiedName, annotations)
+            is UCallExpression -> argument is UExpression && acceptsCall(parent, argument)
+            else -> false
+        }
+    }
+
+    /**
+     * 统计文件中被跳过的字符串
+     *
+     * @return 被跳过的数量和字符串总数
+     */
+    fun countSkipped(file: PsiFile): Pair<Int, Int> {
+        var skipped = 0
+        var total = 0
+        file.accept(object : PsiRecursiveElementWalkingVisitor() {
+            override fun visitElement(element: PsiElement) {
+                if (element is PsiLanguageInjectionHost) {
+                    val uHost = element.toUElement(UInjectionHost::class.java)
+                    if (uHost != null && uHost.isString) {
+                        total++
+                        if (!accepts(uHost)) {
+                            skipped++
+                        }
+                        return
+                    }
+                }
+                super.visitElement(element)
+            }
+        })
+        return skipped to total
+    }
+
+    private fun acceptsCall(call: UCallExpression, argument: UExpression): Boolean {
+        val methodName = call.methodName ?: return false
+        val sites = methods.filter { it.methodName == methodName }
+        if (sites.isEmpty() && annotations.isEmpty()) {
+            return false
+        }
+        // 索引不可用时无法解析方法，只比较方法名
+        if (DumbService.isDumb(call.sourcePsi?.project ?: return false)) {
+            return sites.isNotEmpty()
+        }
+
+        val method: PsiMethod? = call.resolve()
+        if (sites.any { matchesSite(method, it) }) {
+            return true
+        }
+        if (annotations.isNotEmpty()) {
+            val parameter = call.getParameterForArgument(argument) ?: return false
+            return parameter.annotations.any { matchesName(it.qualifiedName, annotations) }
+        }
+        return false
+    }
+
+    private fun matchesSite(method: PsiMethod?, site: MethodSite): Boolean {
+        if (site.className != null && !matchesName(method?.containingClass?.qualifiedName, listOf(site.className))) {
+            return false
+        }
+        val types = site.parameterTypes ?: return true
+        val parameters = method?.parameterList?.parameters ?: return false
+        if (parameters.size != types.size) {
+            return false
+        }
+        // 可变参数擦除后可能变成数组，统一按数组比较
+        return parameters.indices.all {
+            val type = TypeConversionUtil.erasure(parameters[it].type).canonicalText.replace("...", "[]")
+            matchesName(type, listOf(types[it].replace("...", "[]")))
+        }
+    }
+
+    private fun matchesName(qualifiedName: String?, names: List<String>): Boolean {
+        qualifiedName ?: return false
+        return names.any { qualifiedName == it || qualifiedName.endsWith(".$it") }
+    }
+
+    companion object {
+
+        @Volatile
+        private var cached: Pair<String, JsonCallSiteFilter?>? = null
+
+        /**
+         * @return 没有配置规则时返回 null，表示所有字符串都参与匹配
+         */
+        @JvmStatic
+        fun current(): JsonCallSiteFilter? {
+            val patterns = JsonFeatureOptions.instance.CALL_SITE_PATTERNS
+            val cached = cached
+            if (cached != null && cached.first == patterns) {
+                return cached.second
+            }
+            val filter = compile(patterns)
+            this.cached = patterns to filter
+            return filter
+        }
+
+        private fun compile(patterns: String): JsonCallSiteFilter? {
+            val methods = mutableListOf<MethodSite>()
+            val annotations = mutableListOf<String>()
+            for (row in patterns.split(';', '\n').map { it.trim() }.filter { it.isNotEmpty() }) {
+                if (row.startsWith("@")) {
+                    annotations.add(row.substring(1))
+                    continue
+                }
+                val signature = row.substringBefore('(').trim()
+                val className = signature.substringBeforeLast('.', "").takeIf { it.isNotEmpty() && it != "*" }
+                val parameterTypes = if ('(' in row) {
+                    row.substringAfter('(').substringBefore(')')
+                        .split(',').map { it.trim() }.filter { it.isNotEmpty() }
+                } else {
+                    null
+                }
+                methods.add(MethodSite(className, signature.substringAfterLast('.'), parameterTypes))
+            }
+            if (methods.isEmpty() && annotations.isEmpty()) {
+                return null
+            }
+            return JsonCallSiteFilter(methods, annotations)
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.xxxlin.json.resolve
+
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.ElementManipulators
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiLanguageInjectionHost
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
+import com.intellij.psi.util.PsiTreeUtil
+import org.jetbrains.uast.UExpression
+import org.jetbrains.uast.UInjectionHost
+import org.jetbrains.uast.ULiteralExpression
+import org.jetbrains.uast.UParenthesizedExpression
+import org.jetbrains.uast.UPolyadicExpression
+import org.jetbrains.uast.UastBinaryOperator
+import org.jetbrains.uast.toUElement
+
+/**
+ * 代码中可能引用 key 的字符串，通过 UAST 支持 Java、Kotlin 以及 Groovy、Scala 等 JVM 语言
+ *
+ * 字符串处于常量拼接（`"user/" + FIELD`、`"$PREFIX/name"`）中时，[value] 是整个表达式折叠后的值，
+ * [pieces] 记录其中属于 [host] 自身文本的部分，匹配结果只落在这些部分上
+ *
+ * @param value 字符串常量值或折叠后的常量值
+ */
+class JsonKeyLiteral private constructor(
+    val host: PsiLanguageInjectionHost,
+    val value: String,
+    private val pieces: List<Piece>
+) {
+
+    /**
+     * @param valueRange 在 [value] 中的范围
+     * @param hostRange  对应文本在 [host] 中的范围，有转义时长度可能与 [valueRange] 不同
+     */
+    private class Piece(val valueRange: TextRange, val hostRange: TextRange)
+
+    fun analyze(matchSlot: Boolean): List<JsonKeyMatch> {
+        return JsonKeyResolveService.getInstance(host.project).analyze(value, matchSlot)
+    }
+
+    /**
+     * 把 [value] 中的范围换算为 [host] 中的范围，落在其它操作数上的部分被丢弃
+     *
+     * 通过字符串的转义器换算，`\n`、`\"`、`\u0041` 等转义之后的偏移不会错位
+     */
+    fun toHostRanges(range: TextRange): List<TextRange> {
+        val result = ArrayList<TextRange>(1)
+        val escaper = host.createLiteralTextEscaper()
+        val decoded = StringBuilder()
+        for (piece in pieces) {
+            val intersection = piece.valueRange.intersection(range) ?: continue
+            if (intersection.isEmpty) {
+                continue
+            }
+            // getOffsetInHost 依赖最近一次 decode 的结果
+            decoded.setLength(0)
+            escaper.decode(piece.hostRange, decoded)
+            val start = escaper.getOffsetInHost(intersection.startOffset - piece.valueRange.startOffset, piece.hostRange)
+            val end = escaper.getOffsetInHost(intersection.endOffset - piece.valueRange.startOffset, piece.hostRange)
+            if (start in 0 until end) {
+                result.add(TextRange(start, end))
+            }
+        }
+        return result
+    }
+
+    companion object {
+
+        /**
+         * 结果随 PSI 修改失效，同一字符串在多次高亮和解析之间只计算一次
+         *
+         * @return 不是字符串常量或内容为空时返回 null
+         */
+        @JvmStatic
+        fun of(element: PsiElement): JsonKeyLiteral? {
+            // 先按 PSI 类型过滤，避免为每个元素转换 UAST
+            if (element !is PsiLanguageInjectionHost || !element.isValidHost) {
+                return null
+            }
+            return CachedValuesManager.getCachedValue(element) {
+                CachedValueProvider.Result.create(
+                    create(element),
+                    PsiModificationTracker.MODIFICATION_COUNT,
+                    DumbService.getInstance(element.project).modificationTracker
+                )
+            }
+        }
+
+        private fun create(host: PsiLanguageInjectionHost): JsonKeyLiteral? {
+            val uHost = host.toUElement(UInjectionHost::class.java) ?: return null
+            if (!uHost.isString) {
+                return null
+            }
+            if (JsonCallSiteFilter.current()?.accepts(uHost) == false) {
+                return null
+            }
+            // 常量求值需要解析字段引用，索引不可用时只看字符串本身
+            if (!DumbService.isDumb(host.project)) {
+                val folded = fold(host, uHost)
+                if (folded != null) {
+                    return folded
+                }
+            }
+            val value = uHost.evaluateToString()
+            if (value.isNullOrEmpty()) {
+                return null
+            }
+            val range = ElementManipulators.getValueTextRange(host)
+            return JsonKeyLiteral(host, value, listOf(Piece(TextRange(0, value.length), range)))
+        }
+
+        /**
+         * 折叠字符串所在的整个拼接表达式，不是编译期常量时返回 null
+         */
+        private fun fold(host: PsiLanguageInjectionHost, uHost: UInjectionHost): JsonKeyLiteral? {
+            var root: UExpression = uHost
+            while (true) {
+                val parent = root.uastParent
+                root = when {
+                    parent is UParenthesizedExpression -> parent
+                    parent is UPolyadicExpression && parent.operator == UastBinaryOperator.PLUS -> parent
+                    else -> break
+                }
+            }
+
+            val operands = ArrayList<UExpression>()
+            flatten(root, operands)
+            if (operands.size == 1 && operands[0] === uHost && uHost.evaluateToString() != null) {
+                // 普通字符串不需要折叠
+                return null
+            }
+
+            val value = StringBuilder()
+            val pieces = ArrayList<Piece>()
+            for (operand in operands) {
+                val part = constantText(operand) ?: return null
+                val source = operand.sourcePsi
+                if (operand is ULiteralExpression && source != null && PsiTreeUtil.isAncestor(host, source, false)) {
+                    val hostRange = if (source === host) {
+                        ElementManipulators.getValueTextRange(host)
+                    } else {
+                        source.textRange.shiftLeft(host.textRange.startOffset)
+                    }
+                    pieces.add(Piece(TextRange(value.length, value.length + part.length), hostRange))
+                }
+                value.append(part)
+            }
+            if (value.isEmpty() || pieces.isEmpty()) {
+                return null
+            }
+            return JsonKeyLiteral(host, value.toString(), pieces)
+        }
+
+        private fun flatten(expression: UExpression, result: MutableList<UExpression>) {
+            when {
+                expression is UParenthesizedExpression -> flatten(expression.expression, result)
+                expression is UPolyadicExpression && expression.operator == UastBinaryOperator.PLUS ->
+                    expression.operands.forEach { flatten(it, result) }
+
+                else -> result.add(expression)
+            }
+        }
+
+        /**
+         * 由各语言的常量求值器计算操作数的值
+         */
+        private fun constantText(expression: UExpression): String? {
+            return when (val value = expression.evaluate()) {
+                is String, is Number, is Char, is Boolean -> value.toString()
+                else -> null
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.xxxlin.json.resolve
+
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.PsiElement
+import com.xxxlin.json.reference.JsonKeyReference
+
+/**
+ * 字符串中匹配到 key 的一段
+ *
+ * @param range   相对字符串内容（不含引号）的范围
+ * @param keys    单个 key 时只有一个元素；多级 key 时为每一级 key
+ * @param segment 多级 key 中该段对应的层级，单个 key 时为 [JsonKeyReference.NO_SEGMENT]
+ */
+class JsonKeyMatch(
+    val range: TextRange,
+    val keys: List<String>,
+    val segment: Int
+) {
+
+    /**
+     * @param rangeInElement 引用在 [element] 中的范围
+     */
+    fun createReference(element: PsiElement, rangeInElement: TextRange): JsonKeyReference {
+        return if (segment == JsonKeyReference.NO_SEGMENT) {
+            JsonKeyReference.forKey(element, rangeInElement, keys[0])
+        } else {
+            JsonKeyReference.forSegment(element, rangeInElement, keys, segment)
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.xxxlin.json.resolve
+
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.Project
+import com.xxxlin.json.JsonLanguageUtil
+import com.xxxlin.json.editor.JsonFeatureOptions
+import com.xxxlin.json.index.JsonKeySnapshot
+import com.xxxlin.json.psi.JsonProperty
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 带时间预算的 key 解析
+ *
+ * 每处理一个候选属性都会检查取消和剩余时间；超出预算时停止查找，返回已找到的部分结果并标记为不完整
+ */
+@Service(Service.Level.PROJECT)
+class JsonKeyResolveEngine(private val project: Project) {
+
+    private val resolveCount = AtomicLong()
+
+    private val exceededCount = AtomicLong()
+
+    /**
+     * @param incomplete 超出时间预算，[items] 只是部分结果
+     */
+    class Result<T>(val items: List<T>, val incomplete: Boolean)
+
+    class Statistics(val resolveCount: Long, val exceededCount: Long, val budgetMillis: Int)
+
+    private class Budget(millis: Int) {
+        private val deadline = if (millis > 0) System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis.toLong()) else 0L
+
+        var exceeded = false
+            private set
+
+        /**
+         * @return 是否可以继续查找
+         */
+        fun check(): Boolean {
+            ProgressManager.checkCanceled()
+            if (deadline != 0L && System.nanoTime() > deadline) {
+                exceeded = true
+            }
+            return !exceeded
+        }
+    }
+
+    /**
+     * 查找单个 key 对应的所有属性
+     */
+    fun findKey(key: String): Result<JsonProperty> {
+        if (JsonKeySnapshot.isActive(project)) {
+            return Result(JsonKeySnapshot.getInstance(project).findKey(key), false)
+        }
+        val budget = Budget(JsonFeatureOptions.instance.RESOLVE_TIME_BUDGET_MS)
+        val items = mutableListOf<JsonProperty>()
+        JsonLanguageUtil.processJsonKey(project, key) {
+            items.add(it)
+            budget.check()
+        }
+        return finish(items, budget)
+    }
+
+    /**
+     * 查找多级 key，每个文件一组，组内依次是每一级属性
+     */
+    fun findKeys(keys: List<String>): Result<List<JsonProperty>> {
+        if (JsonKeySnapshot.isActive(project)) {
+            return Result(JsonKeySnapshot.getInstance(project).findKeys(keys), false)
+        }
+        val budget = Budget(JsonFeatureOptions.instance.RESOLVE_TIME_BUDGET_MS)
+        val items = mutableListOf<List<JsonProperty>>()
+        JsonLanguageUtil.processJsonKeys(project, keys) {
+            items.add(it)
+            budget.check()
+        }
+        return finish(items, budget)
+    }
+
+    private fun <T> finish(items: List<T>, budget: Budget): Result<T> {
+        resolveCount.incrementAndGet()
+        if (budget.exceeded) {
+            exceededCount.incrementAndGet()
+        }
+        return Result(items, budget.exceeded)
+    }
+
+    fun getStatistics(): Statistics {
+        return Statistics(resolveCount.get(), exceededCount.get(), JsonFeatureOptions.instance.RESOLVE_TIME_BUDGET_MS)
+    }
+
+    companion object {
+        @JvmStatic
+        fun getInstance(project: Project): JsonKeyResolveEngine = project.service()
+    }
+}
@@ -0,0 +1,222 @@
+package com.xxxlin.json.resolve
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.indexing.ID
+import com.xxxlin.json.JsonLanguageUtil
+import com.xxxlin.json.JsonModificationTracker
+import com.xxxlin.json.index.JsonKeyFilter
+import com.xxxlin.json.index.JsonKeyIndex
+import com.xxxlin.json.index.JsonKeyPathIndex
+import com.xxxlin.json.index.JsonKeySnapshot
+import com.xxxlin.json.reference.JsonKeyReference
+import com.xxxlin.json.scope.JsonKeySourceScope
+import com.xxxlin.utils.SlotScanner
+import com.xxxlin.utils.contains
+
+/**
+ * 代码字符串的 key 分析结果缓存，注解器和引用提供者共用
+ *
+ * 同一段文本在一次高亮中只查一次索引；缓存只在 JSON key 变化时失效，编辑代码文件不会清空它
+ */
+@Service(Service.Level.PROJECT)
+class JsonKeyResolveService(private val project: Project) {
+
+    private val tracker = JsonModificationTracker.getInstance(project)
+
+    private val cache: Cache<CacheKey, List<JsonKeyMatch>> = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .build()
+
+    /**
+     * @param snapshot 是否由 dumb mode 下的快照得出，与索引结果分开缓存
+     * @param stamp    开始分析时的 JSON 修改计数，JSON 变化后旧条目不再命中，由容量限制逐渐淘汰
+     */
+    private data class CacheKey(val text: String, val matchSlot: Boolean, val snapshot: Boolean, val stamp: Long)
+
+    /**
+     * @param text      字符串内容（不含引号）
+     * @param matchSlot 是否匹配 {} 槽位
+     */
+    fun analyze(text: String, matchSlot: Boolean): List<JsonKeyMatch> {
+        if (text.isEmpty()) {
+            return emptyList()
+        }
+        val key = CacheKey(text, matchSlot, JsonKeySnapshot.isActive(project), tracker.modificationCount)
+        return cache.get(key) {
+            doAnalyze(it.text, it.matchSlot, IndexLookup(project))
+        }
+    }
+
+    /**
+     * 批量分析多段文本
+     *
+     * 先收集所有未缓存文本中的候选 key 和多级 key 路径，经过滤器后对每个索引只做一次查询，
+     * 再用查询结果分析每段文本
+     */
+    fun analyzeAll(texts: Collection<String>, matchSlot: Boolean): Map<String, List<JsonKeyMatch>> {
+        val result = HashMap<String, List<JsonKeyMatch>>(texts.size)
+        val snapshot = JsonKeySnapshot.isActive(project)
+        val stamp = tracker.modificationCount
+        val pending = LinkedHashSet<String>()
+        for (text in texts) {
+            if (text.isEmpty()) {
+                result[text] = emptyList()
+                continue
+            }
+            val cached = cache.getIfPresent(CacheKey(text, matchSlot, snapshot, stamp))
+            if (cached != null) {
+                result[text] = cached
+            } else {
+                pending.add(text)
+            }
+        }
+        if (pending.isEmpty()) {
+            return result
+        }
+
+        val candidates = CandidateCollector()
+        for (text in pending) {
+            ProgressManager.checkCanceled()
+            doAnalyze(text, matchSlot, candidates)
+        }
+        // 快照本身就在内存中，不需要批量查询
+        val lookup = if (snapshot) IndexLookup(project) else candidates.resolve(project)
+        for (text in pending) {
+            ProgressManager.checkCanceled()
+            val matches = doAnalyze(text, matchSlot, lookup)
+            cache.put(CacheKey(text, matchSlot, snapshot, stamp), matches)
+            result[text] = matches
+        }
+        return result
+    }
+
+    /**
+     * 判断 key 和多级 key 是否存在
+     */
+    private interface KeyLookup {
+        fun containsKey(key: String): Boolean
+
+        fun containsPath(keys: List<String>): Boolean
+    }
+
+    /**
+     * 逐个查询，索引不可用时由 [JsonLanguageUtil] 查询快照
+     */
+    private class IndexLookup(private val project: Project) : KeyLookup {
+        override fun containsKey(key: String) = JsonLanguageUtil.containsJsonKey(project, key)
+
+        override fun containsPath(keys: List<String>) = JsonLanguageUtil.containsJsonKeys(project, keys)
+    }
+
+    /**
+     * 只记录需要查询的 key 和路径，全部返回 false
+     */
+    private class CandidateCollector : KeyLookup {
+        private val names = HashSet<String>()
+        private val paths = HashSet<String>()
+
+        override fun containsKey(key: String): Boolean {
+            names.add(key)
+            return false
+        }
+
+        override fun containsPath(keys: List<String>): Boolean {
+            paths.add(JsonKeyPathIndex.toPath(keys))
+            return false
+        }
+
+        fun resolve(project: Project): KeyLookup {
+            val filter = JsonKeyFilter.getInstance(project)
+            val scope = JsonKeySourceScope.getScope(project)
+            val existingKeys = findExisting(JsonKeyIndex.NAME, names, filter, scope)
+            val existingPaths = findExisting(JsonKeyPathIndex.NAME, paths, filter, scope)
+            return object : KeyLookup {
+                override fun containsKey(key: String) = key in existingKeys
+
+                override fun containsPath(keys: List<String>) = JsonKeyPathIndex.toPath(keys) in existingPaths
+            }
+        }
+
+        /**
+         * 先用过滤器排除，剩下的候选逐个查询索引，找到第一个文件即停止，不读取文件的索引数据
+         */
+        private fun findExisting(
+            indexId: ID<String, IntArray>,
+            candidates: Set<String>,
+            filter: JsonKeyFilter,
+            scope: GlobalSearchScope
+        ): Set<String> {
+            val index = FileBasedIndex.getInstance()
+            val found = HashSet<String>()
+            for (candidate in candidates) {
+                ProgressManager.checkCanceled()
+                if (!filter.mightContain(candidate)) {
+                    continue
+                }
+                if (!index.processValues(indexId, candidate, null, { _, _ -> false }, scope)) {
+                    found.add(candidate)
+                } else {
+                    filter.reportFalsePositive()
+                }
+            }
+            return found
+        }
+    }
+
+    private fun doAnalyze(text: String, matchSlot: Boolean, lookup: KeyLookup): List<JsonKeyMatch> {
+        val result = mutableListOf<JsonKeyMatch>()
+        procString(result, text, 0, lookup)
+        if (matchSlot) {
+            procSlot(result, text, lookup)
+        }
+        return result
+    }
+
+    /**
+     * 完整文本和多级 key
+     */
+    private fun procString(result: MutableList<JsonKeyMatch>, text: String, offset: Int, lookup: KeyLookup) {
+        if (lookup.containsKey(text)) {
+            result.add(JsonKeyMatch(TextRange(offset, offset + text.length), listOf(text), JsonKeyReference.NO_SEGMENT))
+        }
+
+        // 处理多级key
+        if (text.contains('/', '#')) {
+            val keys = text.split("/", "#")
+            if (lookup.containsPath(keys)) {
+                var begin = offset
+                for (index in keys.indices) {
+                    val key = keys[index]
+                    result.add(JsonKeyMatch(TextRange(begin, begin + key.length), keys, index))
+                    begin += key.length + 1
+                }
+            }
+        }
+    }
+
+    /**
+     * 处理带 {} 的文本
+     */
+    private fun procSlot(result: MutableList<JsonKeyMatch>, text: String, lookup: KeyLookup) {
+        // 查询索引时可能在当前线程索引代码文件并再次使用同一个扫描器，先取出所有槽位
+        val slots = SlotScanner.brace().let { scanner ->
+            IntArray(scanner.scan(text) * 2) { if (it % 2 == 0) scanner.start(it / 2) else scanner.end(it / 2) }
+        }
+        for (i in slots.indices step 2) {
+            procString(result, text.substring(slots[i], slots[i + 1]), slots[i], lookup)
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        fun getInstance(project: Project): JsonKeyResolveService = project.service()
+    }
+}
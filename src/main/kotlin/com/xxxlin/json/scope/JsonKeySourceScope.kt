@@ -0,0 +1,94 @@
+package com.xxxlin.json.scope
+
+import com.intellij.openapi.module.ModuleManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.guessProjectDir
+import com.intellij.openapi.roots.ProjectRootModificationTracker
+import com.intellij.openapi.util.SystemInfo
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.search.DelegatingGlobalSearchScope
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.xxxlin.json.editor.JsonKeySourceOptions
+import java.util.regex.Pattern
+
+/**
+ * key 来源范围：项目（或指定模块）中符合包含规则且不符合排除规则的文件
+ *
+ * 规则匹配相对项目根目录的路径，根目录之外的文件匹配绝对路径
+ */
+class JsonKeySourceScope private constructor(
+    base: GlobalSearchScope,
+    private val root: VirtualFile?,
+    private val includes: List<Pattern>,
+    private val excludes: List<Pattern>,
+    options: List<String>
+) : DelegatingGlobalSearchScope(base, options) {
+
+    override fun contains(file: VirtualFile): Boolean {
+        if (!super.contains(file)) {
+            return false
+        }
+        if (includes.isEmpty() && excludes.isEmpty()) {
+            return true
+        }
+        val path = root?.let { VfsUtilCore.getRelativePath(file, it) } ?: file.path
+        if (includes.isNotEmpty() && includes.none { it.matcher(path).matches() }) {
+            return false
+        }
+        return excludes.none { it.matcher(path).matches() }
+    }
+
+    companion object {
+
+        /**
+         * 设置或项目结构变化时重新生成
+         */
+        @JvmStatic
+        fun getScope(project: Project): GlobalSearchScope {
+            return CachedValuesManager.getManager(project).getCachedValue(project) {
+                val options = JsonKeySourceOptions.getInstance(project)
+                CachedValueProvider.Result.create(
+                    create(project, options),
+                    options.modificationTracker,
+                    ProjectRootModificationTracker.getInstance(project)
+                )
+            }
+        }
+
+        private fun create(project: Project, options: JsonKeySourceOptions): GlobalSearchScope {
+            val includes = JsonKeySourceOptions.split(options.INCLUDE_PATTERNS)
+            val excludes = JsonKeySourceOptions.split(options.EXCLUDE_PATTERNS)
+            val moduleNames = JsonKeySourceOptions.split(options.MODULES)
+
+            var base = GlobalSearchScope.projectScope(project)
+            if (moduleNames.isNotEmpty()) {
+                val moduleManager = ModuleManager.getInstance(project)
+                val modules = moduleNames.mapNotNull { moduleManager.findModuleByName(it) }
+                // 模块都找不到（如已重命名）时忽略该设置，union 不接受空列表
+                if (modules.isNotEmpty()) {
+                    base = base.intersectWith(GlobalSearchScope.union(modules.map { it.moduleContentScope }))
+                }
+            }
+            if (includes.isEmpty() && excludes.isEmpty()) {
+                return base
+            }
+            return JsonKeySourceScope(
+                base,
+                project.guessProjectDir(),
+                includes.map(::compile),
+                excludes.map(::compile),
+                includes + excludes
+            )
+        }
+
+        private fun compile(glob: String): Pattern {
+            val regexp = FileUtil.convertAntToRegexp(FileUtil.toSystemIndependentName(glob))
+            val flags = if (SystemInfo.isFileSystemCaseSensitive) 0 else Pattern.CASE_INSENSITIVE
+            return Pattern.compile(regexp, flags)
+        }
+    }
+}
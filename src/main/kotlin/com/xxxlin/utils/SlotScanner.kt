@@ -0,0 +1,87 @@
+package com.xxxlin.utils
+
+/**
+ * 扫描字符串中的槽位，如 {name} 或 %name%
+ *
+ * 语义与正则 `\{[a-zA-Z_]+}` / `%[a-zA-Z_]+%` 的 findAll 相同：从左到右、互不重叠，槽位包含两端分隔符。
+ * 结果以 (start, end) 对写入可复用的 int 缓冲区，扫描过程不创建对象。
+ * 线程复用的实例在下一次扫描时会被覆盖，读取结果期间不要调用可能再次扫描的代码（如查询索引）
+ */
+class SlotScanner(private val open: Char, private val close: Char) {
+
+    private var buffer = IntArray(16)
+
+    /**
+     * 最近一次扫描得到的槽位数量
+     */
+    var count: Int = 0
+        private set
+
+    /**
+     * @return 槽位数量
+     */
+    fun scan(text: CharSequence): Int {
+        count = 0
+        val length = text.length
+        var i = 0
+        while (i < length) {
+            if (text[i] != open) {
+                i++
+                continue
+            }
+            var j = i + 1
+            while (j < length && isNameChar(text[j])) {
+                j++
+            }
+            if (j > i + 1 && j < length && text[j] == close) {
+                add(i, j + 1)
+                i = j + 1
+            } else {
+                i++
+            }
+        }
+        return count
+    }
+
+    /**
+     * 第 index 个槽位的起始偏移（包含分隔符）
+     */
+    fun start(index: Int): Int = buffer[index * 2]
+
+    /**
+     * 第 index 个槽位的结束偏移（不包含）
+     */
+    fun end(index: Int): Int = buffer[index * 2 + 1]
+
+    private fun add(start: Int, end: Int) {
+        val position = count * 2
+        if (position + 1 >= buffer.size) {
+            buffer = buffer.copyOf(buffer.size * 2)
+        }
+        buffer[position] = start
+        buffer[position + 1] = end
+        count++
+    }
+
+    private fun isNameChar(c: Char): Boolean {
+        return c in 'a'..'z' || c in 'A'..'Z' || c == '_'
+    }
+
+    companion object {
+        private val BRACE = ThreadLocal.withInitial { SlotScanner('{', '}') }
+
+        private val PERCENT = ThreadLocal.withInitial { SlotScanner('%', '%') }
+
+        /**
+         * 当前线程复用的 {name} 扫描器
+         */
+        @JvmStatic
+        fun brace(): SlotScanner = BRACE.get()
+
+        /**
+         * 当前线程复用的 %name% 扫描器
+         */
+        @JvmStatic
+        fun percent(): SlotScanner = PERCENT.get()
+    }
+}
@@ -0,0 +1,86 @@
+package com.xxxlin.json
+
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiFileFactory
+import com.intellij.psi.impl.DebugUtil
+import com.intellij.psi.impl.source.PsiFileImpl
+import com.intellij.psi.impl.source.text.BlockSupportImpl
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+
+/**
+ * 对象和数组的增量重解析
+ */
+class JsonContainerReparseTest : BasePlatformTestCase() {
+
+    fun testEditReparsesInnermostObject() {
+        val file = myFixture.configureByText(JsonFileType.INSTANCE, largeJson(1_000)) as PsiFileImpl
+        val offset = markerOffset(file.text)
+        val newText = StringBuilder(file.text).insert(offset, "x")
+
+        val roots = BlockSupportImpl.findReparseableRoots(file, file.node, TextRange(offset, offset), newText)
+
+        assertNotNull(roots)
+        assertEquals(JsonElementTypes.OBJECT, roots!!.first.elementType)
+        assertEquals("{\"name\": \"$MARKER\"}", roots.first.text)
+    }
+
+    fun testEditReparsesInnermostArray() {
+        val file = myFixture.configureByText(JsonFileType.INSTANCE, "{\"a\": {\"b\": [1, 2, 3]}, \"c\": [4]}") as PsiFileImpl
+        val offset = file.text.indexOf("2")
+        val newText = StringBuilder(file.text).insert(offset, "1")
+
+        val roots = BlockSupportImpl.findReparseableRoots(file, file.node, TextRange(offset, offset), newText)
+
+        assertNotNull(roots)
+        assertEquals(JsonElementTypes.ARRAY, roots!!.first.elementType)
+        assertEquals("[1, 2, 3]", roots.first.text)
+    }
+
+    fun testUnbalancedEditFallsBackToFullParse() {
+        val file = myFixture.configureByText(JsonFileType.INSTANCE, "{\"a\": {\"b\": [1, 2]}, \"c\": 3}") as PsiFileImpl
+        val offset = file.text.indexOf("1")
+        val newText = StringBuilder(file.text).insert(offset, "{")
+
+        val roots = BlockSupportImpl.findReparseableRoots(file, file.node, TextRange(offset, offset), newText)
+
+        // 所有容器的括号都不再配对，只能整个文件重新解析
+        assertTrue(roots == null || roots.first.elementType !is JsonContainerElementType)
+    }
+
+    fun testIncrementalResultMatchesFullParse() {
+        val file = myFixture.configureByText(JsonFileType.INSTANCE, largeJson(200))
+        val document = myFixture.editor.document
+        WriteCommandAction.runWriteCommandAction(project) {
+            document.insertString(markerOffset(document.text), "\", \"added\": [true, {\"x\": null}], \"y\": \"")
+        }
+        PsiDocumentManager.getInstance(project).commitDocument(document)
+
+        val expected = PsiFileFactory.getInstance(project)
+            .createFileFromText("expected.json-ext", JsonFileType.INSTANCE, document.text)
+        assertEquals(DebugUtil.psiToString(expected, true), DebugUtil.psiToString(file, true))
+    }
+
+    /**
+     * 标记字符串内容的起始位置，在此插入不会破坏标记本身
+     */
+    private fun markerOffset(text: CharSequence): Int {
+        return text.indexOf(MARKER)
+    }
+
+    private fun largeJson(count: Int): String {
+        val builder = StringBuilder("{\n  \"items\": {\n")
+        for (i in 0 until count) {
+            val name = if (i == count / 2) MARKER else "v$i"
+            builder.append("    \"k$i\": {\"name\": \"$name\"}")
+            builder.append(if (i == count - 1) "\n" else ",\n")
+        }
+        builder.append("  },\n  \"list\": [1, 2, 3]\n}\n")
+        return builder.toString()
+    }
+
+    companion object {
+        private const val MARKER = "MARKER"
+    }
+}